@@ -0,0 +1,260 @@
+package com.pluralsight;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Evaluates many reports in a single pass over a {@link Ledger}.
+ * <p>
+ * Every {@link ReportDefinition} is planned by {@link QueryPlanner} into a slice of the ledger's
+ * {@link DateIndex} and a filter. The pass walks the union of the slices once, newest date first,
+ * and routes each row to every report whose slice holds the position and whose filter accepts the
+ * row, so generating N reports costs one pass over the ledger instead of N. Reports that cannot
+ * match any row are left out of the pass entirely.
+ * </p>
+ */
+public class BatchReport {
+    private static final String FILE_EXTENSION = ".csv";
+
+    /**
+     * Receives the rows of every report during a pass.
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        /**
+         * Accepts one row of one report. Rows of a report arrive newest first, and a row matching
+         * several reports is passed to each of them in turn.
+         *
+         * @param report the index of the report in the definition list
+         * @param row    the row number
+         * @throws IOException if the row cannot be written
+         */
+        void accept(int report, int row) throws IOException;
+    }
+
+    /**
+     * Runs every report in one pass, handing each matching row to a sink.
+     *
+     * @param ledger  the {@link Ledger} to report on
+     * @param reports the reports to evaluate
+     * @param sink    the {@link RowSink} receiving the rows of every report
+     * @return the deposit and payment totals of each report, in the order of the definitions
+     * @throws IOException if the sink fails
+     */
+    public static Rollups.Summary[] run(Ledger ledger, List<ReportDefinition> reports, RowSink sink) throws IOException {
+        int reportCount = reports.size();
+        int[] from = new int[reportCount];
+        int[] to = new int[reportCount];
+        IntPredicate[] filters = new IntPredicate[reportCount];
+        Totals[] totals = new Totals[reportCount];
+        int low = Integer.MAX_VALUE;
+        int high = 0;
+
+        for (int i = 0; i < reportCount; i++) {
+            QueryPlanner.QueryPlan plan = QueryPlanner.plan(ledger, reports.get(i).query());
+            from[i] = plan.from();
+            to[i] = plan.to();
+            filters[i] = plan.filter();
+            totals[i] = new Totals();
+            if (plan.from() < plan.to()) {
+                low = Math.min(low, plan.from());
+                high = Math.max(high, plan.to());
+            }
+        }
+
+        DateIndex dateIndex = ledger.dateIndex();
+        for (int position = high - 1; position >= low; position--) {
+            int row = dateIndex.row(position);
+            for (int i = 0; i < reportCount; i++) {
+                if (position < from[i] || position >= to[i] || !filters[i].test(row)) continue;
+                totals[i].add(ledger.cents(row));
+                sink.accept(i, row);
+            }
+        }
+
+        Rollups.Summary[] summaries = new Rollups.Summary[reportCount];
+        for (int i = 0; i < reportCount; i++) summaries[i] = totals[i].summary();
+        return summaries;
+    }
+
+    /**
+     * Runs every report in one pass and writes each to {@code <name>.csv} in a directory.
+     * <p>
+     * Report files use the data file format, newest row first, so they can be loaded by the tracker
+     * like any data file. A row matching several reports is encoded only once. Every report needs a name
+     * of its own, since two reports writing the same file would interleave their rows.
+     * </p>
+     *
+     * @param ledger    the {@link Ledger} to report on
+     * @param reports   the reports to evaluate
+     * @param directory the directory the report files are written to, created if needed
+     * @return the deposit and payment totals of each report, in the order of the definitions
+     * @throws IOException if a report file cannot be written
+     * @throws IllegalArgumentException if two reports have the same name
+     */
+    public static Rollups.Summary[] writeReports(Ledger ledger, List<ReportDefinition> reports, Path directory)
+            throws IOException {
+        Set<String> names = new HashSet<>();
+        for (ReportDefinition report : reports) {
+            if (!names.add(report.name())) throw new IllegalArgumentException("Duplicate report name " + report.name());
+        }
+
+        Files.createDirectories(directory);
+        List<OutputStream> outputs = new ArrayList<>(reports.size());
+        try {
+            for (ReportDefinition report : reports) {
+                outputs.add(new BufferedOutputStream(Files.newOutputStream(directory.resolve(report.name() + FILE_EXTENSION)),
+                        1 << 16));
+            }
+
+            TransactionCodec.Encoder encoder = new TransactionCodec.Encoder();
+            int[] encodedRow = {-1};
+            return run(ledger, reports, (report, row) -> {
+                if (encodedRow[0] != row) {
+                    encoder.encode(ledger.transaction(row));
+                    encodedRow[0] = row;
+                }
+                encoder.writeTo(outputs.get(report));
+            });
+        } finally {
+            IOException failure = null;
+            for (OutputStream output : outputs) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * Writes reports from the command line, without the interactive menus.
+     * <p>
+     * Usage: {@code BatchReport [--file <data file>] [--out <directory>] [--date <yyyy-MM-dd>] <report>...},
+     * where each report is one of the forms accepted by {@link ReportDefinition#parse(String, LocalDate)}.
+     * The data file defaults to {@link TrackerConfig#DATA_FILE}, the directory to {@code reports} and the date
+     * the period reports are relative to to today. A report given twice is written once, and two different
+     * reports that would share a file name are refused. An invalid date or report prints the usage instead.
+     * A summary of every report is printed when done.
+     * </p>
+     *
+     * @param args the command line arguments
+     * @throws IOException if the ledger cannot be read or a report cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = TrackerConfig.DATA_FILE;
+        Path directory = Path.of("reports");
+        LocalDate today = LocalDate.now();
+        List<String> specs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 == args.length) {
+                printUsage();
+                return;
+            }
+            switch (args[i]) {
+                case "--file" -> fileName = args[++i];
+                case "--out" -> directory = Path.of(args[++i]);
+                case "--date" -> {
+                    try {
+                        today = LocalDate.parse(args[++i], InputValidator.DATE_FORMATTER);
+                    } catch (DateTimeParseException e) {
+                        printUsage();
+                        return;
+                    }
+                }
+                default -> specs.add(args[i]);
+            }
+        }
+        if (specs.isEmpty()) {
+            printUsage();
+            return;
+        }
+        if (!Files.exists(Path.of(fileName))) {
+            System.out.println("File " + fileName + " Doesn't Exist");
+            System.exit(1);
+        }
+
+        Map<String, ReportDefinition> definitions = new LinkedHashMap<>();
+        for (String spec : specs) {
+            ReportDefinition report;
+            try {
+                report = ReportDefinition.parse(spec, today);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                printUsage();
+                return;
+            }
+            ReportDefinition previous = definitions.putIfAbsent(report.name(), report);
+            if (previous != null && !previous.equals(report)) {
+                System.out.println("Different Reports Share The File Name " + report.name());
+                System.exit(1);
+            }
+        }
+        List<ReportDefinition> reports = new ArrayList<>(definitions.values());
+
+        long start = System.nanoTime();
+        Ledger ledger = new Ledger();
+        TransactionManager.loadTransactionsFromFile(fileName, ledger);
+        TransactionManager.closeWriters();
+        Rollups.Summary[] summaries = writeReports(ledger, reports, directory);
+
+        for (int i = 0; i < reports.size(); i++) {
+            Path file = directory.resolve(reports.get(i).name() + FILE_EXTENSION);
+            System.out.println(file + "\n" + TableManager.formatSummary(summaries[i]));
+        }
+        System.out.printf("Wrote %d reports over %d rows in %d ms%n", reports.size(), ledger.rowCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: BatchReport [--file <data file>] [--out <directory>] [--date <yyyy-MM-dd>] <report>...");
+        System.out.println("Reports: all, deposits, payments, month-to-date, previous-month, year-to-date, previous-year, vendor=<text>");
+    }
+
+    /**
+     * Running deposit and payment totals of one report.
+     */
+    private static class Totals {
+        private final long[] counts = new long[2];
+        private final long[] sums = new long[2];
+        private final long[] mins = new long[2];
+        private final long[] maxs = new long[2];
+
+        void add(long cents) {
+            if (cents == 0) return;
+            int kind = (cents > 0) ? 0 : 1;
+            if (counts[kind] == 0) {
+                mins[kind] = cents;
+                maxs[kind] = cents;
+            } else {
+                mins[kind] = Math.min(mins[kind], cents);
+                maxs[kind] = Math.max(maxs[kind], cents);
+            }
+            counts[kind]++;
+            sums[kind] += cents;
+        }
+
+        Rollups.Summary summary() {
+            return new Rollups.Summary(aggregate(0), aggregate(1));
+        }
+
+        private Rollups.Aggregate aggregate(int kind) {
+            return counts[kind] == 0 ? Rollups.Aggregate.EMPTY
+                    : new Rollups.Aggregate(counts[kind], sums[kind], mins[kind], maxs[kind]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.pluralsight;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cache that maps UTF-8 byte ranges to one canonical {@link String} per distinct value.
+ * <p>
+ * Ledgers repeat a few hundred vendors and a few thousand descriptions across millions of rows, so
+ * most fields decoded during a load have been seen before. The cache hashes and compares the field
+ * bytes in place, and only creates a {@link String} the first time a value appears. Every later
+ * occurrence returns that same instance, which allocates nothing and lets {@link StringDictionary}
+ * match it by its cached hash and identity.
+ * </p>
+ * <p>
+ * The cache stops adding entries once it holds {@code maxEntries} values, so a column of mostly
+ * unique values costs at most a bounded table; values past the limit are decoded into fresh strings.
+ * Instances are not thread-safe.
+ * </p>
+ */
+public class ByteStringCache {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT = -1;
+
+    private final int maxEntries;
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] table = newTable(INITIAL_CAPACITY * 2);
+    private int size;
+
+    /**
+     * @param maxEntries the largest number of distinct values kept
+     */
+    public ByteStringCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the string held in a range of bytes, reusing the instance returned for equal bytes before.
+     *
+     * @param buffer the buffer holding the UTF-8 bytes
+     * @param start  the index of the first byte
+     * @param end    the index after the last byte
+     * @return the decoded string
+     */
+    public String get(ByteBuffer buffer, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) hash = 31 * hash + buffer.get(i);
+
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        for (; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY_SLOT) break;
+            if (hashes[id] == hash && matches(keys[id], buffer, start, end)) return values[id];
+        }
+
+        byte[] key = new byte[end - start];
+        buffer.get(start, key);
+        String value = new String(key, StandardCharsets.UTF_8);
+        if (size < maxEntries) add(key, value, hash, slot);
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+        if (key.length != end - start) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(start + i)) return false;
+        }
+        return true;
+    }
+
+    private void add(byte[] key, String value, int hash, int slot) {
+        if (size == values.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        keys[id] = key;
+        values[id] = value;
+        hashes[id] = hash;
+        table[slot] = id;
+
+        // Keep the table at most half full so probe sequences stay short
+        if (size * 2 > table.length) rehash(table.length * 2);
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = newTable(capacity);
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (newTable[slot] != EMPTY_SLOT) slot = (slot + 1) & mask;
+            newTable[slot] = id;
+        }
+        table = newTable;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] newTable = new int[capacity];
+        Arrays.fill(newTable, EMPTY_SLOT);
+        return newTable;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,347 @@
+package com.pluralsight;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the row numbers of a {@link Ledger} ordered by transaction date and time.
+ * <p>
+ * Positions in the index run from the oldest transaction to the newest, with ties broken by row
+ * number so entries sharing a timestamp keep their file order. A date range resolves to one
+ * contiguous slice of positions through two binary searches, so a range query costs
+ * O(log n + k) instead of a full scan of the ledger.
+ * </p>
+ * <p>
+ * The positions are stored as a two-level tree, a sorted sequence of chunks of at most
+ * {@value #CHUNK_CAPACITY} row numbers each, together with the position at which every chunk
+ * starts. Rows appended in chronological order (the common case) are added to the last chunk in
+ * O(1). A back-dated row is located by a binary search over the chunks and then within one chunk,
+ * and only that chunk is shifted, split in half when full, so an insert moves a bounded number of
+ * entries plus one start offset per later chunk instead of every later position.
+ * </p>
+ * <p>
+ * Reading a position remembers the chunk it was found in, so the sequential walks of a scan
+ * resolve almost every position without a search. The index may be read from several threads at
+ * once as long as it is not modified.
+ * </p>
+ * <p>
+ * A {@link #snapshot(Ledger)} copies only the chunk directory and shares the chunks themselves. Entries
+ * appended past the end of a chunk are invisible to the snapshot, so a shared chunk is only copied
+ * once an insert has to shift entries within it.
+ * </p>
+ */
+public class DateIndex {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int CHUNK_CAPACITY = 4096;
+    private static final int INITIAL_CHUNK_CAPACITY = 64;
+    private static final int BULK_MERGE_DIVISOR = 8;    // Ranges above 1/8 of the index are merged rather than inserted
+
+    private final Ledger ledger;
+    private int[][] chunks = new int[4][];
+    private int[] chunkSizes = new int[4];
+    private int[] chunkStarts = new int[4];
+    private boolean[] sharedChunks = new boolean[4];
+    private int chunkCount;
+    private int size;
+    private int lastChunk;      // Chunk of the last position read, racy between readers but always a valid chunk index
+    private boolean rowOrder = true;
+
+    public DateIndex(Ledger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Adds a newly appended row to the index.
+     *
+     * @param row the row number of the appended transaction
+     */
+    public void add(int row) {
+        if (size == 0 || compare(lastRow(), row) <= 0) {
+            append(row);
+        } else {
+            insert(row);
+        }
+    }
+
+    /**
+     * Adds a contiguous range of newly appended rows to the index.
+     * <p>
+     * If the range is already in chronological order and starts after the newest indexed row,
+     * it is appended as is. A small range is inserted row by row, while a range large compared to
+     * the index, such as a whole file, is sorted on its own, merged with the index and re-chunked.
+     * </p>
+     *
+     * @param firstRow the row number of the first appended transaction
+     * @param count    the number of appended transactions
+     */
+    public void addRange(int firstRow, int count) {
+        if (count == 0) return;
+
+        int[] added = new int[count];
+        boolean sorted = size == 0 || compare(lastRow(), firstRow) <= 0;
+        for (int i = 0; i < count; i++) {
+            added[i] = firstRow + i;
+            if (i > 0 && compare(added[i - 1], added[i]) > 0) sorted = false;
+        }
+
+        if (sorted) {
+            for (int row : added) append(row);
+            return;
+        }
+        if (count <= size / BULK_MERGE_DIVISOR) {
+            for (int row : added) add(row);
+            return;
+        }
+
+        mergeSort(added, new int[count], 0, count);
+        int[] merged = new int[size + count];
+        int j = 0, k = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            for (int offset = 0; offset < chunkSizes[chunk]; offset++) {
+                int row = chunks[chunk][offset];
+                while (j < count && compare(added[j], row) < 0) merged[k++] = added[j++];
+                merged[k++] = row;
+            }
+        }
+        while (j < count) merged[k++] = added[j++];
+
+        clear();
+        for (int row : merged) append(row);
+        rowOrder = false;
+    }
+
+    /**
+     * Creates a read-only copy of the index for a snapshot of the ledger, sharing the current chunks.
+     *
+     * @param owner the snapshot ledger the copy belongs to
+     * @return the copy of the index
+     */
+    DateIndex snapshot(Ledger owner) {
+        DateIndex copy = new DateIndex(owner);
+        copy.chunks = chunks.clone();
+        copy.chunkSizes = chunkSizes.clone();
+        copy.chunkStarts = chunkStarts.clone();
+        copy.sharedChunks = new boolean[chunks.length];
+        Arrays.fill(copy.sharedChunks, true);
+        copy.chunkCount = chunkCount;
+        copy.size = size;
+        copy.rowOrder = rowOrder;
+        Arrays.fill(sharedChunks, 0, chunkCount, true);
+        return copy;
+    }
+
+    public void clear() {
+        Arrays.fill(chunks, 0, chunkCount, null);
+        chunkCount = 0;
+        size = 0;
+        lastChunk = 0;
+        rowOrder = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether every position holds the row of the same number, which is the case as long as
+     * rows have only been appended in chronological order. Scans may then read rows directly
+     * instead of through {@link #row(int)}.
+     *
+     * @return {@code true} if positions and row numbers are identical
+     */
+    public boolean inRowOrder() {
+        return rowOrder;
+    }
+
+    /**
+     * Returns the row number stored at a position of the index.
+     *
+     * @param position the position, where {@code 0} is the oldest transaction
+     * @return the row number at that position
+     */
+    public int row(int position) {
+        if (position < 0 || position >= size) throw new IndexOutOfBoundsException(position);
+
+        int chunk = lastChunk;
+        int offset = position - chunkStarts[chunk];
+        if (offset < 0 || offset >= chunkSizes[chunk]) {
+            chunk = chunkOf(position);
+            lastChunk = chunk;
+            offset = position - chunkStarts[chunk];
+        }
+        return chunks[chunk][offset];
+    }
+
+    /**
+     * Returns the first position whose transaction occurs on or after the specified day.
+     *
+     * @param epochDay the day as a day count from 1970-01-01
+     * @return the first position on or after the day, or {@link #size()} if there is none
+     */
+    public int firstPositionOnOrAfter(long epochDay) {
+        return bound(epochDay * SECONDS_PER_DAY, false);
+    }
+
+    /**
+     * Returns the first position whose transaction occurs after the specified day.
+     *
+     * @param epochDay the day as a day count from 1970-01-01
+     * @return the first position after the day, or {@link #size()} if there is none
+     */
+    public int firstPositionAfter(long epochDay) {
+        return bound((epochDay + 1) * SECONDS_PER_DAY, false);
+    }
+
+    private void append(int row) {
+        if (chunkCount == 0 || chunkSizes[chunkCount - 1] == CHUNK_CAPACITY) {
+            insertChunk(chunkCount, new int[INITIAL_CHUNK_CAPACITY], size);
+        }
+        int chunk = chunkCount - 1;
+        ensureChunkCapacity(chunk, false);
+        chunks[chunk][chunkSizes[chunk]++] = row;
+        rowOrder &= row == size;
+        size++;
+    }
+
+    /**
+     * Inserts a back-dated row after every indexed row with the same or an earlier timestamp.
+     */
+    private void insert(int row) {
+        int position = bound(key(row), true);
+        int chunk = (position == size) ? chunkCount - 1 : chunkOf(position);
+        int offset = position - chunkStarts[chunk];
+
+        if (chunkSizes[chunk] == CHUNK_CAPACITY) {
+            split(chunk);
+            if (offset > chunkSizes[chunk]) {
+                offset -= chunkSizes[chunk];
+                chunk++;
+            }
+        }
+        ensureChunkCapacity(chunk, true);
+        int[] entries = chunks[chunk];
+        System.arraycopy(entries, offset, entries, offset + 1, chunkSizes[chunk] - offset);
+        entries[offset] = row;
+        chunkSizes[chunk]++;
+        for (int later = chunk + 1; later < chunkCount; later++) chunkStarts[later]++;
+        rowOrder = false;
+        size++;
+    }
+
+    /**
+     * Moves the upper half of a full chunk into a new chunk that follows it.
+     */
+    private void split(int chunk) {
+        int kept = chunkSizes[chunk] / 2;
+        int moved = chunkSizes[chunk] - kept;
+        int[] upper = new int[CHUNK_CAPACITY];
+        System.arraycopy(chunks[chunk], kept, upper, 0, moved);
+        chunkSizes[chunk] = kept;
+        insertChunk(chunk + 1, upper, chunkStarts[chunk] + kept);
+        chunkSizes[chunk + 1] = moved;
+    }
+
+    private void insertChunk(int chunk, int[] entries, int start) {
+        if (chunkCount == chunks.length) {
+            int capacity = chunks.length * 2;
+            chunks = Arrays.copyOf(chunks, capacity);
+            chunkSizes = Arrays.copyOf(chunkSizes, capacity);
+            chunkStarts = Arrays.copyOf(chunkStarts, capacity);
+            sharedChunks = Arrays.copyOf(sharedChunks, capacity);
+        }
+        System.arraycopy(chunks, chunk, chunks, chunk + 1, chunkCount - chunk);
+        System.arraycopy(chunkSizes, chunk, chunkSizes, chunk + 1, chunkCount - chunk);
+        System.arraycopy(chunkStarts, chunk, chunkStarts, chunk + 1, chunkCount - chunk);
+        System.arraycopy(sharedChunks, chunk, sharedChunks, chunk + 1, chunkCount - chunk);
+        chunks[chunk] = entries;
+        sharedChunks[chunk] = false;
+        chunkSizes[chunk] = 0;
+        chunkStarts[chunk] = start;
+        chunkCount++;
+    }
+
+    /**
+     * Makes room for one more entry in a chunk, copying a chunk shared with a snapshot before entries
+     * are shifted within it.
+     */
+    private void ensureChunkCapacity(int chunk, boolean shifting) {
+        int[] entries = chunks[chunk];
+        if (chunkSizes[chunk] == entries.length) {
+            chunks[chunk] = Arrays.copyOf(entries, Math.min(CHUNK_CAPACITY, entries.length * 2));
+            sharedChunks[chunk] = false;
+        } else if (shifting && sharedChunks[chunk]) {
+            chunks[chunk] = entries.clone();
+            sharedChunks[chunk] = false;
+        }
+    }
+
+    /**
+     * Returns the chunk holding a position, the last chunk starting at or before it.
+     */
+    private int chunkOf(int position) {
+        int low = 0, high = chunkCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (chunkStarts[middle] <= position) low = middle;
+            else high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first position whose key is at least {@code key}, or above it when {@code strict},
+     * searching first for the chunk by its last key and then within that chunk.
+     */
+    private int bound(long key, boolean strict) {
+        int low = 0, high = chunkCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long lastKey = key(chunks[middle][chunkSizes[middle] - 1]);
+            if (strict ? lastKey <= key : lastKey < key) low = middle + 1;
+            else high = middle;
+        }
+        if (low == chunkCount) return size;
+
+        int[] entries = chunks[low];
+        int first = 0, last = chunkSizes[low];
+        while (first < last) {
+            int middle = (first + last) >>> 1;
+            long middleKey = key(entries[middle]);
+            if (strict ? middleKey <= key : middleKey < key) first = middle + 1;
+            else last = middle;
+        }
+        return chunkStarts[low] + first;
+    }
+
+    private int lastRow() {
+        return chunks[chunkCount - 1][chunkSizes[chunkCount - 1] - 1];
+    }
+
+    private long key(int row) {
+        return (long) ledger.epochDay(row) * SECONDS_PER_DAY + ledger.secondOfDay(row);
+    }
+
+    private int compare(int firstRow, int secondRow) {
+        int byKey = Long.compare(key(firstRow), key(secondRow));
+        return (byKey != 0) ? byKey : Integer.compare(firstRow, secondRow);
+    }
+
+    /**
+     * Stable merge sort of row numbers by their date and time.
+     */
+    private void mergeSort(int[] values, int[] scratch, int from, int to) {
+        if (to - from < 2) return;
+
+        int middle = (from + to) >>> 1;
+        mergeSort(values, scratch, from, middle);
+        mergeSort(values, scratch, middle, to);
+        if (compare(values[middle - 1], values[middle]) <= 0) return;
+
+        System.arraycopy(values, from, scratch, from, to - from);
+        int i = from, j = middle, k = from;
+        while (i < middle && j < to) {
+            values[k++] = (compare(scratch[i], scratch[j]) <= 0) ? scratch[i++] : scratch[j++];
+        }
+        while (i < middle) values[k++] = scratch[i++];
+        while (j < to) values[k++] = scratch[j++];
+    }
+}
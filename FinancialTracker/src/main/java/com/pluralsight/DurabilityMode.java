@@ -0,0 +1,13 @@
+package com.pluralsight;
+
+/**
+ * Determines when an appended transaction is considered safely written.
+ */
+public enum DurabilityMode {
+    /** Rows stay buffered in memory until a size or time threshold, or an explicit flush, writes the batch. */
+    NONE,
+    /** Each append waits until its batch has been handed to the operating system. */
+    FLUSH,
+    /** Each append waits until its batch has been written and forced to the storage device. */
+    FSYNC
+}
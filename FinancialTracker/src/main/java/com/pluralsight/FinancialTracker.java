@@ -1,6 +1,7 @@
 package com.pluralsight;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Scanner;
 
 import static com.pluralsight.MenuManager.*;
@@ -8,25 +9,45 @@ import static com.pluralsight.TransactionManager.*;
 
 public class FinancialTracker {
 
-    private static final ArrayList<Transaction> TRANSACTIONS = new ArrayList<>();
-    private static final String FILE_NAME = "transactions.csv";
+    private static final LedgerStore TRANSACTIONS = new LedgerStore();
+    private static final String FILE_NAME = TrackerConfig.DATA_FILE;
     private static final Scanner SCANNER = new Scanner(System.in);
     private static boolean running;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("report")) {
+            // Headless batch reports, see BatchReport
+            BatchReport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            // Local JSON API, see LedgerServer
+            LedgerServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("migrate")) {
+            // One-shot split into monthly or yearly partitions, see PartitionedLedger
+            PartitionedLedger.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         applicationStartup();
 
         while (running) {
+            pollFollowedFiles();
             displayMainMenu();
             handleMainMenuInput();
         }
 
         SCANNER.close();
+        closeWriters();
     }
 
     private static void applicationStartup(){
         running = true;
-        loadTransactionsFromFile(FILE_NAME, TRANSACTIONS);
+        Runtime.getRuntime().addShutdownHook(new Thread(TransactionManager::closeWriters));
+        long loadedBytes = loadTransactionsFromFile(FILE_NAME, TRANSACTIONS);
+        if (TrackerConfig.TAIL) followFile(FILE_NAME, TRANSACTIONS, loadedBytes);
         System.out.println("\nWelcome to TransactionApp!");
     }
 
@@ -99,30 +99,48 @@ public class InputValidator {
     }
 
     /**
-     * Prompts the user to enter a validated transaction amount and returns it as a {@code Double}.
+     * Prompts the user to enter a validated transaction amount and returns it in cents.
      * <p>
-     * The method repeatedly asks for user input until a valid positive amount is provided.
-     * If the {@code isNullable} parameter is {@code true} and the user enters a blank input,
-     * the method returns {@code null}.
+     * The method repeatedly asks for user input until a valid amount is provided. If the user
+     * enters a blank input, the method returns {@code blankValue}, which lets custom filters pass
+     * an unbounded limit such as {@link Long#MIN_VALUE} without boxing. Amounts are parsed by
+     * {@link TransactionCodec#parseCents(CharSequence)}, so they never pass through a {@code double}.
      * </p>
      *
-     * @param scanner     a {@link Scanner} instance for reading user input
-     * @param isNullable  a boolean indicating whether a blank input is allowed (returns {@code null} if true)
-     * @return a {@code Double} representing the validated positive amount input by the user, or {@code null} if input is blank
+     * @param scanner    a {@link Scanner} instance for reading user input
+     * @param blankValue the value returned if the input is blank
+     * @return the validated amount in cents, or {@code blankValue} if input is blank
+     */
+    public static long getValidatedAmount(Scanner scanner, long blankValue) {
+        return readAmount(scanner, true, blankValue);
+    }
+
+    /**
+     * Prompts the user to enter a validated transaction amount and returns it in cents.
+     * <p>
+     * This overload of the method does not allow for a blank input. It repeatedly asks for
+     * user input until a valid positive amount is provided.
+     * </p>
+     *
+     * @param scanner a {@link Scanner} instance for reading user input
+     * @return the validated positive amount input by the user, in cents
      */
-    public static Double getValidatedAmount(Scanner scanner, boolean isNullable) {
-        double amount;
+    public static long getValidatedAmount(Scanner scanner){
+        return readAmount(scanner, false, 0);
+    }
+
+    private static long readAmount(Scanner scanner, boolean isNullable, long blankValue) {
         while (true) {
             System.out.print("Enter transaction amount: ");
 
             try {
                 String input = scanner.nextLine();
 
-                if(isNullable && input.isBlank())return null;
+                if(isNullable && input.isBlank())return blankValue;
 
-                amount = Double.parseDouble(input);
-                if (amount > 0 || isNullable) {
-                    break;
+                long cents = TransactionCodec.parseCents(input);
+                if (cents > 0 || isNullable) {
+                    return cents;
                 } else {
                     throw new NumberFormatException();
                 }
@@ -130,21 +148,6 @@ public class InputValidator {
                 System.out.print("Invalid amount.Please enter a valid positive number.\n");
             }
         }
-        return amount;
-    }
-
-    /**
-     * Prompts the user to enter a validated transaction amount and returns it as a {@code Double}.
-     * <p>
-     * This overload of the method does not allow for a blank input. It repeatedly asks for
-     * user input until a valid positive amount is provided.
-     * </p>
-     *
-     * @param scanner a {@link Scanner} instance for reading user input
-     * @return a {@code Double} representing the validated positive amount input by the user
-     */
-    public static Double getValidatedAmount(Scanner scanner){
-        return getValidatedAmount(scanner,false);
     }
 
     /**
@@ -0,0 +1,198 @@
+package com.pluralsight;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of operation latencies, with the volume each operation processed.
+ * <p>
+ * Latencies are counted in log-linear buckets: exact below {@value #SUB_BUCKETS} nanoseconds, then
+ * {@value #HALF_BUCKETS} buckets per power of two, so every percentile is reported within about 3% of
+ * the true value while the whole range of a {@code long} fits in about two thousand counters. Recording
+ * is one atomic increment of the bucket plus a few {@link LongAdder} updates, which never block and
+ * spread contention between threads.
+ * </p>
+ * <p>
+ * Every operation may also record a volume, such as the rows loaded or the bytes rendered, and a
+ * selected share of that volume, such as the scanned positions that matched a filter. Reads are not
+ * atomic across the counters, which is fine for monitoring.
+ * </p>
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKET_COUNT = bucket(Long.MAX_VALUE) + 1;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final String volumeUnit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder volume = new LongAdder();
+    private final LongAdder selected = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param name       the name the histogram is published under
+     * @param volumeUnit the unit of the recorded volume, such as {@code rows}
+     */
+    public LatencyHistogram(String name, String volumeUnit) {
+        this.name = name;
+        this.volumeUnit = volumeUnit;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Records one operation.
+     *
+     * @param nanos  the duration of the operation in nanoseconds, negative durations count as zero
+     * @param volume the volume the operation processed
+     */
+    public void record(long nanos, long volume) {
+        record(nanos, volume, 0);
+    }
+
+    /**
+     * Records one operation that selected part of its volume.
+     *
+     * @param nanos    the duration of the operation in nanoseconds, negative durations count as zero
+     * @param volume   the volume the operation processed
+     * @param selected the part of the volume the operation selected
+     */
+    public void record(long nanos, long volume, long selected) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        totalNanos.add(value);
+        if (volume != 0) this.volume.add(volume);
+        if (selected != 0) this.selected.add(selected);
+        if (value > maxNanos.get()) maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the latency at or below which a share of the operations completed.
+     *
+     * @param quantile the share, between {@code 0} and {@code 1}
+     * @return the latency in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long percentileNanos(double quantile) {
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts[bucket] = buckets.get(bucket);
+            total += counts[bucket];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) return Math.min(highestValue(bucket), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long operations = count.sum();
+        return (operations == 0) ? 0 : totalNanos.sum() / NANOS_PER_MILLI / operations;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileNanos(0.5) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return percentileNanos(0.9) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileNanos(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return percentileNanos(0.999) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String getVolumeUnit() {
+        return volumeUnit;
+    }
+
+    @Override
+    public long getVolume() {
+        return volume.sum();
+    }
+
+    @Override
+    public double getVolumePerSecond() {
+        long nanos = totalNanos.sum();
+        return (nanos == 0) ? 0 : volume.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public double getSelectivity() {
+        long total = volume.sum();
+        return (total == 0) ? 0 : (double) selected.sum() / total;
+    }
+
+    @Override
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) buckets.set(bucket, 0);
+        count.reset();
+        totalNanos.reset();
+        volume.reset();
+        selected.reset();
+        maxNanos.set(0);
+    }
+
+    /**
+     * Summarizes the histogram on one line, as written to the metrics dump file.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms %s=%d %s/s=%.0f selectivity=%.4f",
+                name, getCount(), getMeanMillis(), getP50Millis(), getP90Millis(), getP99Millis(), getP999Millis(),
+                getMaxMillis(), volumeUnit, getVolume(), volumeUnit, getVolumePerSecond(), getSelectivity());
+    }
+
+    /**
+     * Returns the bucket of a non-negative value. Values below {@link #SUB_BUCKETS} have a bucket each,
+     * larger values share a bucket with the values that agree in their top {@link #SUB_BUCKET_BITS} bits.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        return shift * HALF_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int shift = bucket / HALF_BUCKETS - 1;
+        long top = bucket % HALF_BUCKETS + HALF_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
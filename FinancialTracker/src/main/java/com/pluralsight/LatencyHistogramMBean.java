@@ -0,0 +1,35 @@
+package com.pluralsight;
+
+/**
+ * Management interface of a {@link LatencyHistogram}, as published over JMX by {@link Metrics}.
+ */
+public interface LatencyHistogramMBean {
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    /** The unit of the volume, such as {@code rows} or {@code bytes}. */
+    String getVolumeUnit();
+
+    /** The total volume of every recorded operation. */
+    long getVolume();
+
+    /** The volume processed per second of recorded time. */
+    double getVolumePerSecond();
+
+    /** The share of the volume that was selected, for scans the share of visited positions that matched. */
+    double getSelectivity();
+
+    /** Clears every recorded value. */
+    void reset();
+}
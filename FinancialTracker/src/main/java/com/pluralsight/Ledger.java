@@ -0,0 +1,364 @@
+package com.pluralsight;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Columnar in-memory store for the transactions of a ledger.
+ * <p>
+ * Every transaction is held as one row across a set of primitive columns: the date as an
+ * epoch day, the time as a second of the day, the amount in cents, and the description and
+ * vendor as ids into a {@link StringDictionary}. Rows are appended in file order and are
+ * identified by their row number, which never changes once assigned.
+ * </p>
+ * <p>
+ * As a {@link java.util.List}, the ledger presents its rows newest first, matching the order
+ * in which the ledger is displayed. {@link Transaction} records are only created when a row is
+ * read through the list view or {@link #transaction(int)}, filters are expected to scan the
+ * primitive columns through the row accessors instead.
+ * </p>
+ * <p>
+ * A {@link DateIndex} is maintained alongside the columns, so date range queries can resolve
+ * the matching rows without scanning the ledger, and a {@link TrigramIndex} over each string
+ * dictionary answers substring searches on descriptions and vendors. {@link Rollups} keep the
+ * totals of every day, month, year and vendor up to date as rows are appended.
+ * </p>
+ * <p>
+ * A ledger is not thread-safe. To share one between threads, it is owned by a {@link LedgerStore},
+ * which hands readers read-only snapshots created by {@link #snapshot()}.
+ * </p>
+ */
+public class Ledger extends AbstractList<Transaction> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StringDictionary descriptions;
+    private final StringDictionary vendors;
+    private final DateIndex dateIndex;
+    private final TrigramIndex descriptionSearch;
+    private final TrigramIndex vendorSearch;
+    private final Rollups rollups;
+    private final boolean readOnly;
+    private int[] dates = new int[INITIAL_CAPACITY];
+    private int[] times = new int[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] descriptionIds = new int[INITIAL_CAPACITY];
+    private int[] vendorIds = new int[INITIAL_CAPACITY];
+    private int rowCount;
+
+    public Ledger() {
+        this(true);
+    }
+
+    /**
+     * Creates a ledger, optionally without its indexes.
+     * <p>
+     * Ledgers without indexes are meant as temporary segments, for example while a file is loaded
+     * in parallel, and are only ever read back through {@link #appendAll(Ledger)}.
+     * </p>
+     *
+     * @param maintainIndexes whether the date and search indexes and the rollups are maintained
+     */
+    Ledger(boolean maintainIndexes) {
+        descriptions = new StringDictionary();
+        vendors = new StringDictionary();
+        dateIndex = maintainIndexes ? new DateIndex(this) : null;
+        descriptionSearch = maintainIndexes ? new TrigramIndex(descriptions) : null;
+        vendorSearch = maintainIndexes ? new TrigramIndex(vendors) : null;
+        rollups = maintainIndexes ? new Rollups(this) : null;
+        readOnly = false;
+    }
+
+    /**
+     * Creates a read-only snapshot of another ledger, see {@link #snapshot()}.
+     */
+    private Ledger(Ledger source) {
+        descriptions = source.descriptions.snapshot();
+        vendors = source.vendors.snapshot();
+        dates = source.dates;
+        times = source.times;
+        amounts = source.amounts;
+        descriptionIds = source.descriptionIds;
+        vendorIds = source.vendorIds;
+        rowCount = source.rowCount;
+        boolean indexed = source.dateIndex != null;
+        dateIndex = indexed ? source.dateIndex.snapshot(this) : null;
+        descriptionSearch = indexed ? source.descriptionSearch.snapshot(descriptions) : null;
+        vendorSearch = indexed ? source.vendorSearch.snapshot(vendors) : null;
+        rollups = indexed ? source.rollups.snapshot(this) : null;
+        readOnly = true;
+    }
+
+    /**
+     * Creates a read-only snapshot of the ledger as it is now, which later changes to the ledger do not affect.
+     * <p>
+     * Rows are never changed once appended, so the snapshot shares the column arrays of the ledger and
+     * only reads the rows that existed when it was taken. The dictionaries and search indexes are
+     * append-only as well, so the snapshot shares them and records their sizes. It also shares the chunks
+     * of the {@link DateIndex} and the blocks of the {@link Rollups}, which the ledger copies before
+     * changing them. Taking a snapshot therefore costs a few small directory copies, whatever the size
+     * of the ledger. Snapshots may be read from several threads at once.
+     * </p>
+     *
+     * @return the read-only snapshot
+     */
+    Ledger snapshot() {
+        return new Ledger(this);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns the number of changes made to the ledger so far, which tells a {@link LedgerStore}
+     * whether its latest snapshot is still current.
+     */
+    int modificationCount() {
+        return modCount;
+    }
+
+    /**
+     * Appends a row from its already encoded column values.
+     *
+     * @param epochDay    the date of the transaction as a day count from 1970-01-01
+     * @param secondOfDay the time of the transaction as a second of the day
+     * @param description the description of the transaction
+     * @param vendor      the vendor associated with the transaction
+     * @param cents       the amount of the transaction in cents
+     * @return the row number assigned to the transaction
+     */
+    public int append(int epochDay, int secondOfDay, String description, String vendor, long cents) {
+        return appendEncoded(epochDay, secondOfDay, descriptions.intern(description), vendors.intern(vendor), cents);
+    }
+
+    /**
+     * Appends a {@link Transaction} as the newest row of the ledger.
+     *
+     * @param t the transaction to append
+     * @return the row number assigned to the transaction
+     */
+    public int append(Transaction t) {
+        return append((int) t.date().toEpochDay(), t.time().toSecondOfDay(), t.description(), t.vendor(), t.cents());
+    }
+
+    /**
+     * Appends every row of another ledger, in order, translating its dictionary ids to the ids
+     * used by this ledger.
+     *
+     * @param other the ledger whose rows are appended
+     */
+    public void appendAll(Ledger other) {
+        checkWritable();
+        int[] descriptionMap = remap(other.descriptions, descriptions);
+        int[] vendorMap = remap(other.vendors, vendors);
+
+        int count = other.rowCount;
+        ensureCapacity(rowCount + count);
+        System.arraycopy(other.dates, 0, dates, rowCount, count);
+        System.arraycopy(other.times, 0, times, rowCount, count);
+        System.arraycopy(other.amounts, 0, amounts, rowCount, count);
+        for (int row = 0; row < count; row++) {
+            descriptionIds[rowCount + row] = descriptionMap[other.descriptionIds[row]];
+            vendorIds[rowCount + row] = vendorMap[other.vendorIds[row]];
+        }
+        rowCount += count;
+        modCount++;
+        updateIndexes(rowCount - count, count);
+    }
+
+    /**
+     * Appends rows given as whole columns, such as those read from a {@link LedgerSnapshotFile}.
+     * <p>
+     * The dictionary ids of the rows refer to the given dictionary values, and are translated
+     * to the ids used by this ledger.
+     * </p>
+     *
+     * @param epochDays         the dates of the rows as day counts from 1970-01-01
+     * @param secondsOfDay      the times of the rows as seconds of the day
+     * @param cents             the amounts of the rows in cents
+     * @param descriptionIds    the description of each row, as an index into {@code descriptionValues}
+     * @param vendorIds         the vendor of each row, as an index into {@code vendorValues}
+     * @param descriptionValues the description values referenced by the rows
+     * @param vendorValues      the vendor values referenced by the rows
+     * @param count             the number of rows to append
+     */
+    void appendColumns(int[] epochDays, int[] secondsOfDay, long[] cents, int[] descriptionIds, int[] vendorIds,
+                       String[] descriptionValues, String[] vendorValues, int count) {
+        checkWritable();
+        int[] descriptionMap = new int[descriptionValues.length];
+        for (int id = 0; id < descriptionMap.length; id++) descriptionMap[id] = descriptions.intern(descriptionValues[id]);
+        int[] vendorMap = new int[vendorValues.length];
+        for (int id = 0; id < vendorMap.length; id++) vendorMap[id] = vendors.intern(vendorValues[id]);
+
+        ensureCapacity(rowCount + count);
+        System.arraycopy(epochDays, 0, dates, rowCount, count);
+        System.arraycopy(secondsOfDay, 0, times, rowCount, count);
+        System.arraycopy(cents, 0, amounts, rowCount, count);
+        for (int row = 0; row < count; row++) {
+            this.descriptionIds[rowCount + row] = descriptionMap[descriptionIds[row]];
+            this.vendorIds[rowCount + row] = vendorMap[vendorIds[row]];
+        }
+        rowCount += count;
+        modCount++;
+        updateIndexes(rowCount - count, count);
+    }
+
+    /**
+     * Creates the {@link Transaction} record for a single row.
+     *
+     * @param row the row number
+     * @return a new {@link Transaction} holding the values of the row
+     */
+    public Transaction transaction(int row) {
+        return new Transaction(LocalDate.ofEpochDay(dates[row]), LocalTime.ofSecondOfDay(times[row]),
+                descriptions.get(descriptionIds[row]), vendors.get(vendorIds[row]), amounts[row]);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int epochDay(int row) {
+        return dates[row];
+    }
+
+    public int secondOfDay(int row) {
+        return times[row];
+    }
+
+    public long cents(int row) {
+        return amounts[row];
+    }
+
+    public int descriptionId(int row) {
+        return descriptionIds[row];
+    }
+
+    public int vendorId(int row) {
+        return vendorIds[row];
+    }
+
+    public DateIndex dateIndex() {
+        return dateIndex;
+    }
+
+    public TrigramIndex descriptionSearch() {
+        return descriptionSearch;
+    }
+
+    public TrigramIndex vendorSearch() {
+        return vendorSearch;
+    }
+
+    public Rollups rollups() {
+        return rollups;
+    }
+
+    public StringDictionary descriptions() {
+        return descriptions;
+    }
+
+    public StringDictionary vendors() {
+        return vendors;
+    }
+
+    /**
+     * Returns the transaction at the specified position of the newest-first view.
+     *
+     * @param index the position in the list, where {@code 0} is the newest row
+     * @return a new {@link Transaction} holding the values of the row
+     */
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= rowCount) throw new IndexOutOfBoundsException(index);
+        return transaction(rowCount - 1 - index);
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Inserts a transaction into the newest-first view.
+     * <p>
+     * Only insertion at the top of the list is supported, which appends the transaction as the
+     * newest row. Inserting at the bottom is also accepted while the ledger is empty.
+     * </p>
+     *
+     * @throws UnsupportedOperationException if the transaction would not become the newest row
+     */
+    @Override
+    public void add(int index, Transaction t) {
+        if (index != 0 && index != rowCount) throw new IndexOutOfBoundsException(index);
+        if (index != 0 && rowCount != 0) {
+            throw new UnsupportedOperationException("Transactions can only be added as the newest row");
+        }
+        append(t);
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        // Snapshots may share the columns, so later rows must not overwrite the cleared ones
+        dates = new int[INITIAL_CAPACITY];
+        times = new int[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        descriptionIds = new int[INITIAL_CAPACITY];
+        vendorIds = new int[INITIAL_CAPACITY];
+        rowCount = 0;
+        if (dateIndex != null) dateIndex.clear();
+        if (rollups != null) rollups.clear();
+        modCount++;
+    }
+
+    private int appendEncoded(int epochDay, int secondOfDay, int descriptionId, int vendorId, long cents) {
+        checkWritable();
+        ensureCapacity(rowCount + 1);
+        int row = rowCount++;
+        dates[row] = epochDay;
+        times[row] = secondOfDay;
+        amounts[row] = cents;
+        descriptionIds[row] = descriptionId;
+        vendorIds[row] = vendorId;
+        modCount++;
+        updateIndexes(row, 1);
+        return row;
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("Ledger snapshots are read-only");
+    }
+
+    private void updateIndexes(int firstRow, int count) {
+        if (dateIndex == null) return;
+
+        if (count == 1) dateIndex.add(firstRow);
+        else dateIndex.addRange(firstRow, count);
+        descriptionSearch.update();
+        vendorSearch.update();
+        for (int row = firstRow; row < firstRow + count; row++) rollups.add(row);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= dates.length) return;
+
+        int newCapacity = Math.max(capacity, dates.length * 2);
+        dates = Arrays.copyOf(dates, newCapacity);
+        times = Arrays.copyOf(times, newCapacity);
+        amounts = Arrays.copyOf(amounts, newCapacity);
+        descriptionIds = Arrays.copyOf(descriptionIds, newCapacity);
+        vendorIds = Arrays.copyOf(vendorIds, newCapacity);
+    }
+
+    private static int[] remap(StringDictionary from, StringDictionary to) {
+        int[] map = new int[from.size()];
+        for (int id = 0; id < map.length; id++) {
+            map[id] = to.intern(from.get(id));
+        }
+        return map;
+    }
+}
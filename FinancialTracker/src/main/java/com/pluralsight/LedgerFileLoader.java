@@ -0,0 +1,227 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class LedgerFileLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;      // 1 MiB, below this a single chunk is parsed
+    private static final int MAX_CHUNK_SIZE = 1 << 26;      // 64 MiB, keeps every mapping well under the 2 GiB limit
+    private static final int BOUNDARY_SCAN_SIZE = 4096;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * Loads every transaction stored in the specified file, newest entry first.
+     * <p>
+     * The file is loaded into a {@link Ledger} by {@link #load(Path, Ledger)} and the rows are
+     * then materialized as {@link Transaction} records, for callers that need a plain list.
+     * </p>
+     *
+     * @param path the path of the file from which to load transactions
+     * @return an {@link ArrayList} of the loaded transactions, newest entries first
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public static ArrayList<Transaction> load(Path path) throws IOException {
+        Ledger ledger = new Ledger();
+        load(path, ledger);
+        return new ArrayList<>(ledger);
+    }
+
+    /**
+     * Loads every transaction stored in the specified file into the columns of a {@link Ledger}.
+     * <p>
+     * The file is memory-mapped and split into newline-aligned chunks, which are decoded
+     * in parallel on the common {@link ForkJoinPool}. Each chunk is decoded into its own
+     * {@link Ledger} segment, and the segments are appended to the target in file order,
+     * so the rows end up exactly as if the file had been read line by line.
+     * </p>
+     * <p>
+     * Each line is decoded by a {@link TransactionCodec.Decoder}. Only lines with exactly
+     * five values are processed, every other line is skipped.
+     * </p>
+     *
+     * @param path   the path of the file from which to load transactions
+     * @param ledger the ledger to which the loaded rows are appended
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public static void load(Path path, Ledger ledger) throws IOException {
+        load(path, ledger, 0);
+    }
+
+    /**
+     * Loads the transactions stored in the specified file after a byte offset, for example the
+     * rows appended since a {@link LedgerSnapshotFile} was written.
+     * <p>
+     * The offset is expected to fall at the end of a row. Because every row is written with its
+     * line separator in front of it, the rows after the offset are then loaded exactly as if the
+     * whole file had been read. A negative offset loads the whole file.
+     * </p>
+     *
+     * @param path        the path of the file from which to load transactions
+     * @param ledger      the ledger to which the loaded rows are appended
+     * @param startOffset the number of leading bytes to skip
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public static void load(Path path, Ledger ledger, long startOffset) throws IOException {
+        load(path, ledger, startOffset, Long.MAX_VALUE);
+    }
+
+    /**
+     * Loads the transactions stored between two byte offsets of the specified file, for example
+     * the rows appended since the file was last read by a {@link LedgerTail}.
+     * <p>
+     * Both offsets are expected to fall at the end of a row. Bytes past the end offset, such as a row
+     * that is still being written, are left for a later load.
+     * </p>
+     *
+     * @param path        the path of the file from which to load transactions
+     * @param ledger      the ledger to which the loaded rows are appended
+     * @param startOffset the number of leading bytes to skip
+     * @param endOffset   the offset after the last byte loaded, capped at the file size
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public static void load(Path path, Ledger ledger, long startOffset, long endOffset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel, Math.max(0, startOffset), endOffset);
+            int chunkCount = boundaries.length - 1;
+
+            Ledger[] segments = new Ledger[chunkCount];
+            try {
+                ForkJoinPool.commonPool().invoke(new ChunkParseTask(channel, boundaries, segments, 0, chunkCount));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            for (Ledger segment : segments) {
+                ledger.appendAll(segment);
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks whose boundaries always fall directly after a newline.
+     * <p>
+     * The chunk count scales with the available parallelism of the common pool, but no chunk
+     * is smaller than {@code MIN_CHUNK_SIZE} or larger than {@code MAX_CHUNK_SIZE} (unless a single
+     * line is longer than that). Each nominal boundary is moved forward to the start of the next line.
+     * </p>
+     *
+     * @param channel     the open channel of the file being loaded
+     * @param startOffset the offset of the first chunk
+     * @param endOffset   the offset after the last chunk, capped at the file size
+     * @return the chunk boundaries, where chunk {@code i} spans {@code [boundaries[i], boundaries[i + 1])}
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] findChunkBoundaries(FileChannel channel, long startOffset, long endOffset) throws IOException {
+        long size = Math.max(Math.min(channel.size(), endOffset), startOffset);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, (size - startOffset) / (parallelism * 4L));
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+        ArrayList<Long> boundaries = new ArrayList<>();
+        boundaries.add(startOffset);
+
+        ByteBuffer scanBuffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long position = startOffset + chunkSize;
+        while (position < size) {
+            long lineStart = nextLineStart(channel, position, scanBuffer);
+            if (lineStart >= size) break;
+            boundaries.add(lineStart);
+            position = lineStart + chunkSize;
+        }
+        boundaries.add(size);
+
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer scanBuffer) throws IOException {
+        while (true) {
+            scanBuffer.clear();
+            int read = channel.read(scanBuffer, position);
+            if (read <= 0) return channel.size();
+
+            for (int i = 0; i < read; i++) {
+                if (scanBuffer.get(i) == NEW_LINE) return position + i + 1;
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Decodes every line of one mapped chunk into a new {@link Ledger} segment, in file order.
+     *
+     * @param buffer the mapped bytes of the chunk
+     * @return the ledger segment holding the rows decoded from the chunk
+     */
+    private static Ledger parseChunk(MappedByteBuffer buffer) {
+        Ledger segment = new Ledger(false);
+        TransactionCodec.Decoder decoder = new TransactionCodec.Decoder();
+        int limit = buffer.limit();
+
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != NEW_LINE) lineEnd++;
+
+            int end = lineEnd;
+            if (end > lineStart && buffer.get(end - 1) == CARRIAGE_RETURN) end--;
+
+            if (end > lineStart) decoder.decodeInto(buffer, lineStart, end, segment);
+            lineStart = lineEnd + 1;
+        }
+        return segment;
+    }
+
+    /**
+     * Fork-join task that maps and parses a contiguous range of chunks, halving the range
+     * until a single chunk remains.
+     */
+    private static class ChunkParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final Ledger[] results;
+        private final int from;
+        private final int to;
+
+        ChunkParseTask(FileChannel channel, long[] boundaries, Ledger[] results, int from, int to) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkParseTask(channel, boundaries, results, from, middle),
+                        new ChunkParseTask(channel, boundaries, results, middle, to));
+                return;
+            }
+
+            long start = boundaries[from];
+            long length = boundaries[from + 1] - start;
+            if (length == 0) {
+                results[from] = new Ledger(false);
+                return;
+            }
+
+            try {
+                results[from] = parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.pluralsight;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic generator of realistic synthetic ledgers, written in the data file format.
+ * <p>
+ * Everything the generator produces follows from its seed, so the same settings always produce the
+ * same bytes and benchmarks and tests can share identical datasets without shipping them. Rows are
+ * written in chronological order and streamed through a {@link TransactionCodec.Encoder}, so memory
+ * use does not depend on the number of rows.
+ * </p>
+ * <p>
+ * The generated ledger mixes recurring entries (paychecks on the 1st and 15th, rent, utilities
+ * that peak in winter and summer, and a subscription) with everyday spending. Everyday spending
+ * picks its vendor with Zipfian popularity, so a few vendors dominate and most are rare, and both the
+ * number of transactions per day and their amounts rise towards the end of the year and on weekends.
+ * </p>
+ */
+public class LedgerGenerator {
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final LocalDate DEFAULT_END_DATE = LocalDate.of(2024, 12, 31);  // Fixed, so a seed alone reproduces a file
+    private static final double REFUND_RATE = 0.02;
+    private static final int FIRST_SPENDING_SECOND = 7 * 3600;
+    private static final int LAST_SPENDING_SECOND = 23 * 3600;
+    private static final String[] SYLLABLES = {"ka", "lo", "mer", "vin", "ta", "ro", "sel", "bri", "don", "fa",
+            "gul", "hen", "ri", "sto", "wel", "ya", "zen", "cor", "pa", "lu"};
+    private static final Category[] CATEGORIES = {
+            new Category(new String[]{"Groceries", "Produce", "Household Supplies"},
+                    new String[]{"Market", "Grocery", "Foods"}, 60, 0.6, 5),
+            new Category(new String[]{"Fuel Purchase"}, new String[]{"Fuel", "Gas", "Petroleum"}, 40, 0.3, 3),
+            new Category(new String[]{"Dinner", "Lunch", "Coffee"},
+                    new String[]{"Cafe", "Grill", "Bistro", "Diner"}, 25, 0.7, 4),
+            new Category(new String[]{"Clothing", "Electronics", "Gift", "Hardware"},
+                    new String[]{"Outfitters", "Electronics", "Supply", "Store"}, 55, 1.0, 2),
+            new Category(new String[]{"Movie Tickets", "Concert", "Video Game"},
+                    new String[]{"Cinema", "Arcade", "Live"}, 30, 0.6, 1)
+    };
+
+    private final long seed;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String[] vendorNames;
+    private final Category[] vendorCategories;
+    private final double[] vendorPopularity;
+
+    /**
+     * Creates a generator for a date span.
+     *
+     * @param seed        the seed every generated value derives from
+     * @param startDate   the date of the first generated transaction (inclusive)
+     * @param endDate     the date of the last generated transaction (inclusive)
+     * @param vendorCount the number of everyday spending vendors
+     */
+    public LedgerGenerator(long seed, LocalDate startDate, LocalDate endDate, int vendorCount) {
+        if (endDate.isBefore(startDate)) throw new IllegalArgumentException("End date is before start date");
+        if (vendorCount < 1) throw new IllegalArgumentException("At least one vendor is required");
+
+        this.seed = seed;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.vendorNames = new String[vendorCount];
+        this.vendorCategories = new Category[vendorCount];
+        this.vendorPopularity = new double[vendorCount];
+
+        Random random = new Random(seed);
+        int categoryWeight = Arrays.stream(CATEGORIES).mapToInt(Category::weight).sum();
+        Set<String> usedNames = new HashSet<>();
+        double cumulative = 0;
+        for (int i = 0; i < vendorCount; i++) {
+            Category category = pickCategory(random.nextInt(categoryWeight));
+            String name = capitalize(SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)])
+                    + " " + category.suffixes()[random.nextInt(category.suffixes().length)];
+            if (!usedNames.add(name)) name += " " + (i + 1);
+
+            vendorNames[i] = name;
+            vendorCategories[i] = category;
+            cumulative += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            vendorPopularity[i] = cumulative;
+        }
+    }
+
+    /**
+     * Writes the requested number of rows to a file, replacing its contents.
+     *
+     * @param file the file to write
+     * @param rows the number of rows to generate
+     * @throws IOException if the file cannot be written
+     */
+    public void generate(Path file, long rows) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            generate(out, rows);
+        }
+    }
+
+    /**
+     * Streams the requested number of rows, in chronological order, to an output stream.
+     * <p>
+     * Rows are spread over the days of the span in proportion to each day's seasonal weight, so the
+     * total is exact whatever the span. Recurring entries are only written on days that have room for them.
+     * </p>
+     *
+     * @param out  the stream the encoded rows are written to
+     * @param rows the number of rows to generate
+     * @throws IOException if the stream cannot be written
+     */
+    public void generate(OutputStream out, long rows) throws IOException {
+        int dayCount = (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
+        double totalWeight = 0;
+        for (int day = 0; day < dayCount; day++) totalWeight += dayWeight(startDate.plusDays(day));
+
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+        TransactionCodec.Encoder encoder = new TransactionCodec.Encoder();
+        int[] seconds = new int[16];
+        double cumulativeWeight = 0;
+        long written = 0;
+
+        for (int day = 0; day < dayCount; day++) {
+            LocalDate date = startDate.plusDays(day);
+            double weight = dayWeight(date);
+            cumulativeWeight += weight;
+            long target = (day == dayCount - 1) ? rows : Math.round(rows * (cumulativeWeight / totalWeight));
+            int dayRows = (int) Math.min(Integer.MAX_VALUE, target - written);
+
+            int recurring = writeRecurring(date, dayRows, out, encoder);
+            int spending = dayRows - recurring;
+
+            if (seconds.length < spending) seconds = new int[Math.max(spending, seconds.length * 2)];
+            for (int i = 0; i < spending; i++) {
+                seconds[i] = FIRST_SPENDING_SECOND + random.nextInt(LAST_SPENDING_SECOND - FIRST_SPENDING_SECOND);
+            }
+            Arrays.sort(seconds, 0, spending);
+
+            double amountScale = Math.sqrt(weight);
+            for (int i = 0; i < spending; i++) {
+                int vendor = pickVendor(random.nextDouble());
+                Category category = vendorCategories[vendor];
+                String description = category.descriptions()[random.nextInt(category.descriptions().length)];
+                double amount = category.median() * amountScale * Math.exp(category.sigma() * random.nextGaussian());
+                long cents = Math.max(1, Math.round(amount * 100));
+                if (random.nextDouble() >= REFUND_RATE) cents = -cents;
+                else description = "Refund " + description;
+
+                write(encoder, out, date, seconds[i], description, vendorNames[vendor], cents);
+            }
+            written += dayRows;
+        }
+    }
+
+    /**
+     * Writes the recurring entries that fall on a date, as long as the day has room for them.
+     *
+     * @return the number of rows written
+     */
+    private int writeRecurring(LocalDate date, int dayRows, OutputStream out, TransactionCodec.Encoder encoder)
+            throws IOException {
+        int written = 0;
+        int dayOfMonth = date.getDayOfMonth();
+        int yearsIn = date.getYear() - startDate.getYear();
+
+        if ((dayOfMonth == 1 || dayOfMonth == 15) && written < dayRows) {
+            // Paychecks grow by 3% a year
+            long pay = Math.round(2150 * Math.pow(1.03, yearsIn) * 100);
+            write(encoder, out, date, 6 * 3600, "Direct Deposit", "The Company", pay);
+            written++;
+        }
+        if (dayOfMonth == 1 && written < dayRows) {
+            long rent = Math.round(1400 * Math.pow(1.04, yearsIn)) * 100;
+            write(encoder, out, date, 6 * 3600 + 60, "Rent Payment", "Property Management", -rent);
+            written++;
+        }
+        if (dayOfMonth == 5 && written < dayRows) {
+            // Utilities peak in winter and summer
+            double season = Math.abs(Math.cos(2 * Math.PI * (date.getDayOfYear() - 15) / 182.6));
+            long utilities = Math.round((90 + 110 * season) * 100);
+            write(encoder, out, date, 6 * 3600 + 120, "Utilities", "City Power & Light", -utilities);
+            written++;
+        }
+        if (dayOfMonth == 12 && written < dayRows) {
+            write(encoder, out, date, 6 * 3600 + 180, "Subscription", "StreamFlix", -1599);
+            written++;
+        }
+        return written;
+    }
+
+    private static void write(TransactionCodec.Encoder encoder, OutputStream out, LocalDate date, int secondOfDay,
+                              String description, String vendor, long cents) throws IOException {
+        encoder.encode(new Transaction(date, LocalTime.ofSecondOfDay(secondOfDay), description, vendor, cents))
+                .writeTo(out);
+    }
+
+    /**
+     * Relative activity of a day: highest towards the end of the year and on weekends.
+     */
+    private static double dayWeight(LocalDate date) {
+        double seasonal = 1 + 0.3 * Math.cos(2 * Math.PI * (date.getDayOfYear() - 355) / 365.25);
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+        return weekend ? seasonal * 1.25 : seasonal;
+    }
+
+    /**
+     * Maps a uniform value to a vendor by binary search over the cumulative Zipf weights.
+     */
+    private int pickVendor(double uniform) {
+        double target = uniform * vendorPopularity[vendorPopularity.length - 1];
+        int index = Arrays.binarySearch(vendorPopularity, target);
+        return Math.min(vendorPopularity.length - 1, (index >= 0) ? index : -index - 1);
+    }
+
+    private static Category pickCategory(int value) {
+        for (Category category : CATEGORIES) {
+            value -= category.weight();
+            if (value < 0) return category;
+        }
+        return CATEGORIES[CATEGORIES.length - 1];
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    /**
+     * Generates a ledger file from the command line.
+     * <p>
+     * Usage: {@code LedgerGenerator <file> <rows> [seed] [startDate] [endDate] [vendors]}, with dates in
+     * {@code yyyy-MM-dd} format. The span defaults to the ten years ending 2024-12-31, not today, so the
+     * same arguments produce the same file on any day, and the vendor count defaults to 1000.
+     * </p>
+     *
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: LedgerGenerator <file> <rows> [seed] [startDate] [endDate] [vendors]");
+            return;
+        }
+
+        Path file = Path.of(args[0]);
+        long rows = Long.parseLong(args[1]);
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 42;
+        LocalDate endDate = (args.length > 4) ? LocalDate.parse(args[4], InputValidator.DATE_FORMATTER) : DEFAULT_END_DATE;
+        LocalDate startDate = (args.length > 3) ? LocalDate.parse(args[3], InputValidator.DATE_FORMATTER)
+                : endDate.minusYears(10).plusDays(1);
+        int vendors = (args.length > 5) ? Integer.parseInt(args[5]) : 1000;
+
+        long start = System.nanoTime();
+        new LedgerGenerator(seed, startDate, endDate, vendors).generate(file, rows);
+        System.out.printf("Generated %d rows in '%s' in %d ms%n", rows, file, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Everyday spending category: its descriptions, vendor name suffixes, log-normal amount
+     * distribution and relative share of vendors.
+     */
+    private record Category(String[] descriptions, String[] suffixes, double median, double sigma, int weight) {
+    }
+}
@@ -0,0 +1,429 @@
+package com.pluralsight;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.pluralsight.InputValidator.DATE_FORMATTER;
+import static com.pluralsight.InputValidator.TIME_FORMATTER;
+
+/**
+ * Embedded HTTP server exposing the filters and the transaction entry of the menus as JSON endpoints.
+ * <p>
+ * The server listens on the loopback interface only and answers:
+ * </p>
+ * <ul>
+ *     <li>{@code GET /transactions}: the matching rows, newest first, filtered by any of the optional
+ *     parameters {@code type} ({@code deposits} or {@code payments}), {@code start} and {@code end}
+ *     ({@code yyyy-MM-dd}), {@code description}, {@code vendor}, {@code min} and {@code max} (amounts),
+ *     and capped by {@code limit}.</li>
+ *     <li>{@code GET /summary}: the deposit and payment totals of a date range ({@code start}, {@code end})
+ *     or of the vendors matching {@code vendor}, taken from the {@link Rollups}.</li>
+ *     <li>{@code POST /transactions}: adds a transaction from the form-encoded fields {@code date},
+ *     {@code time}, {@code description}, {@code vendor} and {@code amount}. The description and vendor must not
+ *     be blank. The transaction is written to the data file and then added to the store under the store's
+ *     write lock, so concurrent posts keep the same order in both, and a failed write answers
+ *     {@code 500 Internal Server Error}.</li>
+ * </ul>
+ * <p>
+ * Every read runs on a snapshot of the {@link LedgerStore}, so thousands of concurrent readers never
+ * block one another or the writer. Matching rows are written to the response as the {@link RowCursor}
+ * produces them, in chunks, so a large result is never held in memory.
+ * </p>
+ * <p>
+ * Requests run on a virtual thread each when the JDK provides them. At most {@code maxConcurrent} of
+ * them are handled at once, and a request that cannot start within the acquire timeout is turned away
+ * with {@code 503 Service Unavailable}, which pushes back on clients instead of piling up work. On
+ * older JDKs, requests run on a fixed pool of {@code maxConcurrent} platform threads instead, and the
+ * requests beyond those wait in the pool's queue.
+ * </p>
+ */
+public class LedgerServer implements AutoCloseable {
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final int OUTPUT_BUFFER_SIZE = 8 * 1024;
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final LedgerStore store;
+    private final String fileName;
+
+    private LedgerServer(HttpServer server, ExecutorService executor, LedgerStore store, String fileName,
+                         int maxConcurrent, long acquireTimeoutMillis) {
+        this.server = server;
+        this.executor = executor;
+        this.store = store;
+        this.fileName = fileName;
+        this.permits = new Semaphore(maxConcurrent);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param store                the {@link LedgerStore} to serve
+     * @param fileName             the data file new transactions are written to
+     * @param port                 the port to listen on, or {@code 0} for any free port
+     * @param maxConcurrent        the number of requests handled at once
+     * @param acquireTimeoutMillis how long a request waits to be handled before it is refused
+     * @return the running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static LedgerServer start(LedgerStore store, String fileName, int port, int maxConcurrent,
+                                     long acquireTimeoutMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        ExecutorService executor = newRequestExecutor(maxConcurrent);
+        LedgerServer ledgerServer = new LedgerServer(server, executor, store, fileName, maxConcurrent, acquireTimeoutMillis);
+        server.createContext("/transactions", ledgerServer::handleTransactions);
+        server.createContext("/summary", ledgerServer::handleSummary);
+        server.setExecutor(executor);
+        server.start();
+        return ledgerServer;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the tracker as a server, without the interactive menus.
+     * <p>
+     * Usage: {@code LedgerServer [--file <data file>] [--port <port>]}. The data file defaults to
+     * {@link TrackerConfig#DATA_FILE} and the port to {@link TrackerConfig#SERVER_PORT}. Rows appended to the
+     * file by other processes are merged while the server runs, as in the interactive mode.
+     * </p>
+     *
+     * @param args the command line arguments
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = TrackerConfig.DATA_FILE;
+        int port = TrackerConfig.SERVER_PORT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--file" -> fileName = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                default -> {
+                    System.out.println("Usage: LedgerServer [--file <data file>] [--port <port>]");
+                    return;
+                }
+            }
+        }
+
+        LedgerStore store = new LedgerStore();
+        long loadedBytes = TransactionManager.loadTransactionsFromFile(fileName, store);
+        if (TrackerConfig.TAIL) {
+            TransactionManager.followFile(fileName, store, loadedBytes);
+            ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-server-tail");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(TransactionManager::pollFollowedFiles, 1, 1, TimeUnit.SECONDS);
+        }
+
+        LedgerServer server = start(store, fileName, port, TrackerConfig.SERVER_MAX_CONCURRENT,
+                TrackerConfig.SERVER_ACQUIRE_TIMEOUT_MILLIS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            TransactionManager.closeWriters();
+        }));
+        System.out.println("Serving " + store.snapshot().rowCount() + " Transactions On http://localhost:" + server.port());
+    }
+
+    /**
+     * Creates the executor requests run on: a virtual thread per request when the running JDK has them
+     * (Java 21 and later), looked up reflectively so the tracker still runs on Java 17.
+     */
+    private static ExecutorService newRequestExecutor(int platformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(platformThreads, runnable -> {
+                Thread thread = new Thread(runnable, "ledger-server-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleTransactions(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            switch (exchange.getRequestMethod()) {
+                case "GET" -> streamTransactions(exchange, parameters(exchange.getRequestURI().getRawQuery()));
+                case "POST" -> addTransaction(exchange, parameters(readBody(exchange)));
+                default -> sendError(exchange, 405, "Use GET or POST");
+            }
+        });
+    }
+
+    private void handleSummary(HttpExchange exchange) throws IOException {
+        handle(exchange, () -> {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Use GET");
+                return;
+            }
+            Map<String, String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+            Ledger ledger = store.snapshot();
+            Rollups.Summary summary;
+            if (parameters.containsKey("vendor")) {
+                if (parameters.containsKey("start") || parameters.containsKey("end")) {
+                    throw new IllegalArgumentException("Summarize either a date range or a vendor");
+                }
+                BitSet vendors = ledger.vendorSearch().matching(parameters.get("vendor"));
+                summary = ledger.rollups().vendors(vendors);
+            } else {
+                summary = ledger.rollups().range(date(parameters, "start"), date(parameters, "end"));
+            }
+
+            StringBuilder json = new StringBuilder("{");
+            appendAggregate(json, "deposits", summary.deposits()).append(',');
+            appendAggregate(json, "payments", summary.payments()).append(',');
+            json.append("\"net\":").append(TransactionCodec.formatCents(summary.netCents())).append('}');
+            sendJson(exchange, 200, json.toString());
+        });
+    }
+
+    /**
+     * Runs a request once a permit is available, turning invalid parameters into {@code 400 Bad Request}.
+     */
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Too many concurrent requests");
+                return;
+            }
+            try {
+                handler.handle();
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(exchange, 400, e.getMessage());
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Streams the rows matching the request as a JSON object, with the plan first and the count last.
+     */
+    private void streamTransactions(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        RowQuery query = RowQuery.ALL.between(date(parameters, "start"), date(parameters, "end"))
+                .describedBy(parameters.get("description"))
+                .fromVendor(parameters.get("vendor"))
+                .amountBetween(cents(parameters, "min", Long.MIN_VALUE), cents(parameters, "max", Long.MAX_VALUE));
+        String type = parameters.getOrDefault("type", "all");
+        switch (type) {
+            case "deposits" -> query = query.ofType(true);
+            case "payments" -> query = query.ofType(false);
+            case "all" -> { }
+            default -> throw new IllegalArgumentException("Unknown type " + type);
+        }
+        int limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : Integer.MAX_VALUE;
+        if (limit < 0) throw new IllegalArgumentException("Negative limit");
+
+        Ledger ledger = store.snapshot();
+        QueryPlanner.QueryPlan plan = QueryPlanner.plan(ledger, query);
+        RowCursor cursor = plan.cursor();
+
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        Writer output = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                OUTPUT_BUFFER_SIZE);
+        output.write("{\"plan\":");
+        writeString(output, plan.description());
+        output.write(",\"transactions\":[");
+        int count = 0;
+        while (count < limit) {
+            int row = cursor.next();
+            if (row < 0) break;
+            if (count++ > 0) output.write(',');
+            writeTransaction(output, ledger.transaction(row));
+        }
+        output.write("],\"count\":" + count + "}");
+        output.flush();
+    }
+
+    private void addTransaction(HttpExchange exchange, Map<String, String> fields) throws IOException {
+        LocalDate date = LocalDate.parse(required(fields, "date"), DATE_FORMATTER);
+        LocalTime time = LocalTime.parse(required(fields, "time"), TIME_FORMATTER);
+        String description = text(fields, "description");
+        String vendor = text(fields, "vendor");
+        long cents;
+        try {
+            cents = TransactionCodec.parseCents(required(fields, "amount"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount " + fields.get("amount"));
+        }
+
+        Transaction transaction = new Transaction(date, time, description, vendor, cents);
+        try {
+            store.append(transaction, t -> TransactionManager.appendToFile(t, fileName));
+        } catch (IOException e) {
+            sendError(exchange, 500, "Error writing transaction " + e.getMessage());
+            return;
+        }
+
+        StringWriter json = new StringWriter();
+        writeTransaction(json, transaction);
+        sendJson(exchange, 201, json.toString());
+    }
+
+    private static void writeTransaction(Writer output, Transaction t) throws IOException {
+        output.write("{\"date\":\"");
+        output.write(t.date().format(DATE_FORMATTER));
+        output.write("\",\"time\":\"");
+        output.write(t.time().format(TIME_FORMATTER));
+        output.write("\",\"description\":");
+        writeString(output, t.description());
+        output.write(",\"vendor\":");
+        writeString(output, t.vendor());
+        output.write(",\"amount\":");
+        output.write(TransactionCodec.formatCents(t.cents()));
+        output.write('}');
+    }
+
+    private static StringBuilder appendAggregate(StringBuilder json, String name, Rollups.Aggregate aggregate) {
+        return json.append('"').append(name).append("\":{\"count\":").append(aggregate.count())
+                .append(",\"sum\":").append(TransactionCodec.formatCents(aggregate.sumCents()))
+                .append(",\"min\":").append(TransactionCodec.formatCents(aggregate.minCents()))
+                .append(",\"max\":").append(TransactionCodec.formatCents(aggregate.maxCents())).append('}');
+    }
+
+    /**
+     * Writes a JSON string literal, escaping quotes, backslashes and control characters.
+     */
+    private static void writeString(Writer output, String value) throws IOException {
+        output.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) continue;
+
+            output.write(value, start, i - start);
+            switch (c) {
+                case '"' -> output.write("\\\"");
+                case '\\' -> output.write("\\\\");
+                case '\n' -> output.write("\\n");
+                case '\r' -> output.write("\\r");
+                case '\t' -> output.write("\\t");
+                default -> output.write(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        output.write(value, start, value.length() - start);
+        output.write('"');
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringWriter json = new StringWriter();
+        json.write("{\"error\":");
+        writeString(json, String.valueOf(message));
+        json.write('}');
+        sendJson(exchange, status, json.toString());
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Decodes a URL-encoded query string or form body into its parameters. Empty values are left out.
+     */
+    private static Map<String, String> parameters(String encoded) {
+        Map<String, String> parameters = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) return parameters;
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = (separator < 0) ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8).trim();
+            if (!value.isEmpty()) parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static LocalDate date(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        return (value == null) ? null : LocalDate.parse(value, DATE_FORMATTER);
+    }
+
+    private static long cents(Map<String, String> parameters, String name, long absentValue) {
+        String value = parameters.get(name);
+        if (value == null) return absentValue;
+        try {
+            return TransactionCodec.parseCents(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount " + value);
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing " + name);
+        return value;
+    }
+
+    /**
+     * Returns a trimmed text field, which must not be blank nor contain the separators of the data file format.
+     */
+    private static String text(Map<String, String> fields, String name) {
+        String value = fields.getOrDefault(name, "").trim();
+        if (value.isEmpty()) throw new IllegalArgumentException("The " + name + " must not be blank");
+        if (value.indexOf('|') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("The " + name + " must not contain '|' or line breaks");
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle() throws IOException;
+    }
+}
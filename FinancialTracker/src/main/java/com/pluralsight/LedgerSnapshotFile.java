@@ -0,0 +1,341 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of a {@link Ledger}, kept next to its data file for fast startup.
+ * <p>
+ * The snapshot stores the ledger columns as fixed-width values (epoch days, seconds of the day and
+ * amounts in cents) followed by the description and vendor dictionaries. Its header records how
+ * many bytes of the data file it covers, the file key of the data file, a checksum of sampled blocks
+ * of the covered bytes, a checksum of all of them, and a checksum of its own body.
+ * </p>
+ * <p>
+ * Loading maps the snapshot, copies the columns in bulk and then parses only the rows that were
+ * appended to the data file after the snapshot was written. A snapshot whose own checksum fails,
+ * or whose covered bytes no longer match the data file, is treated as stale and ignored, and a
+ * fresh snapshot is written once the data file has been loaded.
+ * </p>
+ * <p>
+ * So that startup does not grow with the size of the data file, a load only compares the file key,
+ * which changes when the file is replaced, and the checksum of {@value #SAMPLE_COUNT} evenly spaced
+ * blocks plus the last block of the covered range, a fixed amount of reading. An edit that falls
+ * between the sampled blocks is not noticed this way. Loading with {@code verifyAll}, see
+ * {@link TrackerConfig#SNAPSHOT_VERIFY}, also checksums every covered byte and catches those as well.
+ * </p>
+ */
+public class LedgerSnapshotFile {
+    private static final int MAGIC = 0x4654534E;     // "FTSN"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 48;
+    private static final int TAIL_CHECK_SIZE = 4096;
+    private static final int SAMPLE_COUNT = 16;
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int MAP_SIZE = 1 << 26;            // 64 MiB, keeps every mapping well under the 2 GiB limit
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * Returns the path of the snapshot belonging to a data file.
+     *
+     * @param dataFile the data file
+     * @return the path of its snapshot
+     */
+    public static Path snapshotPath(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Loads a data file into a ledger through its snapshot, rebuilding the snapshot when needed.
+     * <p>
+     * If a valid snapshot exists, its rows are loaded and only the data file bytes after the covered
+     * offset are parsed. Otherwise the whole data file is parsed. A new snapshot is written when there
+     * was no valid snapshot, or when more than {@code rebuildBytes} had to be parsed from the data file.
+     * Only the bytes present when the load starts are loaded, even if the data file grows meanwhile.
+     * The snapshot is only checked against sampled blocks of the data file.
+     * </p>
+     *
+     * @param dataFile     the data file to load
+     * @param ledger       the ledger to which the rows are appended
+     * @param rebuildBytes the number of parsed data file bytes above which the snapshot is rewritten
+     * @return the number of data file bytes loaded
+     * @throws IOException if the data file does not exist or cannot be read
+     */
+    public static long load(Path dataFile, Ledger ledger, long rebuildBytes) throws IOException {
+        return load(dataFile, ledger, rebuildBytes, false);
+    }
+
+    /**
+     * Loads a data file into a ledger through its snapshot, as {@link #load(Path, Ledger, long)} does,
+     * optionally checking every data file byte the snapshot covers.
+     *
+     * @param dataFile     the data file to load
+     * @param ledger       the ledger to which the rows are appended
+     * @param rebuildBytes the number of parsed data file bytes above which the snapshot is rewritten
+     * @param verifyAll    whether all the covered bytes are checksummed, not only sampled blocks of them
+     * @return the number of data file bytes loaded
+     * @throws IOException if the data file does not exist or cannot be read
+     */
+    public static long load(Path dataFile, Ledger ledger, long rebuildBytes, boolean verifyAll) throws IOException {
+        long dataSize = Files.size(dataFile);
+        long coveredBytes = read(dataFile, ledger, verifyAll);
+
+        LedgerFileLoader.load(dataFile, ledger, coveredBytes, dataSize);
+
+        if (coveredBytes < 0 || dataSize - coveredBytes > rebuildBytes) {
+            try {
+                write(dataFile, ledger, dataSize);
+            } catch (IOException e) {
+                System.out.println("Error Writing Snapshot For " + dataFile + " " + e);
+            }
+        }
+        return dataSize;
+    }
+
+    /**
+     * Reads the snapshot of a data file into an empty ledger, checking only sampled blocks of the data file.
+     */
+    static long read(Path dataFile, Ledger ledger) {
+        return read(dataFile, ledger, false);
+    }
+
+    /**
+     * Reads the snapshot of a data file into an empty ledger.
+     *
+     * @param dataFile  the data file whose snapshot is read
+     * @param ledger    the ledger to which the snapshot rows are appended
+     * @param verifyAll whether all the covered bytes are checksummed, not only sampled blocks of them
+     * @return the number of data file bytes covered by the snapshot, or {@code -1} if there is no
+     *         valid snapshot (in which case the ledger is left untouched)
+     */
+    static long read(Path dataFile, Ledger ledger, boolean verifyAll) {
+        Path snapshot = snapshotPath(dataFile);
+        if (!Files.exists(snapshot) || !ledger.isEmpty()) return -1;
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ);
+             FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) return -1;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) return -1;
+            long coveredBytes = buffer.getLong(8);
+            int sampleChecksum = buffer.getInt(16);
+            int rowCount = buffer.getInt(20);
+            int descriptionCount = buffer.getInt(24);
+            int vendorCount = buffer.getInt(28);
+            int bodyChecksum = buffer.getInt(32);
+            int dataChecksum = buffer.getInt(36);
+            int fileKeyHash = buffer.getInt(40);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE));
+            if ((int) crc.getValue() != bodyChecksum) return -1;
+
+            // A stale snapshot covers bytes that are no longer in the data file
+            if (data.size() < coveredBytes || fileKeyHash(dataFile) != fileKeyHash
+                    || sampleChecksum(data, coveredBytes) != sampleChecksum) {
+                return -1;
+            }
+            if (verifyAll && dataChecksum(data, coveredBytes) != dataChecksum) return -1;
+
+            buffer.position(HEADER_SIZE);
+            int[] dates = new int[rowCount];
+            int[] times = new int[rowCount];
+            long[] amounts = new long[rowCount];
+            int[] descriptionIds = new int[rowCount];
+            int[] vendorIds = new int[rowCount];
+            buffer.asIntBuffer().get(dates);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+            buffer.asIntBuffer().get(times);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+            buffer.asLongBuffer().get(amounts);
+            buffer.position(buffer.position() + rowCount * Long.BYTES);
+            buffer.asIntBuffer().get(descriptionIds);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+            buffer.asIntBuffer().get(vendorIds);
+            buffer.position(buffer.position() + rowCount * Integer.BYTES);
+
+            String[] descriptions = readStrings(buffer, descriptionCount);
+            String[] vendors = readStrings(buffer, vendorCount);
+
+            ledger.appendColumns(dates, times, amounts, descriptionIds, vendorIds, descriptions, vendors, rowCount);
+            return coveredBytes;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring Unreadable Snapshot " + snapshot + " " + e);
+            return -1;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the ledger, replacing the previous snapshot atomically.
+     *
+     * @param dataFile     the data file the ledger was loaded from
+     * @param ledger       the ledger to snapshot
+     * @param coveredBytes the number of data file bytes reflected by the ledger
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path dataFile, Ledger ledger, long coveredBytes) throws IOException {
+        Path snapshot = snapshotPath(dataFile);
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        int rowCount = ledger.rowCount();
+        StringDictionary descriptions = ledger.descriptions();
+        StringDictionary vendors = ledger.vendors();
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            BodyWriter body = new BodyWriter(channel);
+            for (int row = 0; row < rowCount; row++) body.putInt(ledger.epochDay(row));
+            for (int row = 0; row < rowCount; row++) body.putInt(ledger.secondOfDay(row));
+            for (int row = 0; row < rowCount; row++) body.putLong(ledger.cents(row));
+            for (int row = 0; row < rowCount; row++) body.putInt(ledger.descriptionId(row));
+            for (int row = 0; row < rowCount; row++) body.putInt(ledger.vendorId(row));
+            for (int id = 0; id < descriptions.size(); id++) body.putString(descriptions.get(id));
+            for (int id = 0; id < vendors.size(); id++) body.putString(vendors.get(id));
+            body.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION).putLong(coveredBytes).putInt(sampleChecksum(data, coveredBytes))
+                    .putInt(rowCount).putInt(descriptions.size()).putInt(vendors.size()).putInt(body.checksum())
+                    .putInt(dataChecksum(data, coveredBytes)).putInt(fileKeyHash(dataFile)).putInt(0).flip();
+            channel.write(header, 0);
+            channel.force(false);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Computes the checksum of {@value #SAMPLE_COUNT} evenly spaced blocks of the data file bytes covered by a
+     * snapshot, the first one at the start, followed by the last block. A small data file is checksummed whole.
+     */
+    static int sampleChecksum(FileChannel data, long coveredBytes) throws IOException {
+        if (coveredBytes <= (SAMPLE_COUNT + 1L) * SAMPLE_SIZE) return dataChecksum(data, coveredBytes);
+
+        CRC32 crc = new CRC32();
+        ByteBuffer block = ByteBuffer.allocate(SAMPLE_SIZE);
+        long stride = (coveredBytes - SAMPLE_SIZE) / SAMPLE_COUNT;
+        for (int i = 0; i < SAMPLE_COUNT; i++) updateBlock(crc, data, block, i * stride);
+        updateBlock(crc, data, block, coveredBytes - SAMPLE_SIZE);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Computes the checksum of all the data file bytes covered by a snapshot.
+     */
+    static int dataChecksum(FileChannel data, long coveredBytes) throws IOException {
+        CRC32 crc = new CRC32();
+        for (long start = 0; start < coveredBytes; start += MAP_SIZE) {
+            long length = Math.min(MAP_SIZE, coveredBytes - start);
+            crc.update(data.map(FileChannel.MapMode.READ_ONLY, start, length));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Computes the checksum of the last data file bytes before an offset, a quick check that the bytes
+     * a {@link LedgerTail} has loaded were not rewritten.
+     */
+    static int tailChecksum(FileChannel data, long coveredBytes) throws IOException {
+        long start = Math.max(0, coveredBytes - TAIL_CHECK_SIZE);
+        ByteBuffer tail = ByteBuffer.allocate((int) (coveredBytes - start));
+        while (tail.hasRemaining()) {
+            if (data.read(tail, start + tail.position()) < 0) break;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tail.flip());
+        return (int) crc.getValue();
+    }
+
+    private static void updateBlock(CRC32 crc, FileChannel data, ByteBuffer block, long start) throws IOException {
+        block.clear();
+        while (block.hasRemaining()) {
+            if (data.read(block, start + block.position()) < 0) break;
+        }
+        crc.update(block.flip());
+    }
+
+    /**
+     * Hashes the file key of the data file, which changes when the file is replaced rather than edited
+     * in place. File systems without file keys hash to zero.
+     */
+    private static int fileKeyHash(Path dataFile) throws IOException {
+        return Objects.hashCode(Files.readAttributes(dataFile, BasicFileAttributes.class).fileKey());
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int count) {
+        String[] values = new String[count];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) bytes = new byte[length];
+            buffer.get(bytes, 0, length);
+            values[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /**
+     * Streams the snapshot body through a fixed-size buffer, checksumming every byte written.
+     */
+    private static class BodyWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private long position = HEADER_SIZE;
+
+        BodyWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                ensureRemaining(1);
+                int count = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+
+        void finish() throws IOException {
+            drain();
+        }
+
+        int checksum() {
+            return (int) crc.getValue();
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.pluralsight;
+
+import java.time.LocalDate;
+
+/**
+ * Stored rows that a {@link LedgerStore} loads lazily, such as a {@link LineIndex} or a {@link PartitionedLedger}.
+ * <p>
+ * A source describes the rows as they were stored when it was opened. Rows added afterwards are held
+ * by the store itself, so loading the source never returns them a second time.
+ * </p>
+ */
+public interface LedgerSource {
+    /**
+     * Loads the rows dated within a range into a new {@link Ledger}, reading as little as the source allows.
+     *
+     * @param startDate the first date of the range (inclusive), or {@code null} for no lower bound
+     * @param endDate   the last date of the range (inclusive), or {@code null} for no upper bound
+     * @return a new ledger holding at least every row of the range
+     * @throws java.io.UncheckedIOException if the stored rows cannot be read
+     */
+    Ledger load(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Appends every row of the source to a ledger.
+     *
+     * @param ledger the ledger the rows are appended to
+     * @throws java.io.UncheckedIOException if the stored rows cannot be read
+     */
+    void loadAll(Ledger ledger);
+}
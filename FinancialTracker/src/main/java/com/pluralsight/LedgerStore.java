@@ -0,0 +1,236 @@
+package com.pluralsight;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe owner of a {@link Ledger}, with a single writer at a time and snapshot-isolated readers.
+ * <p>
+ * Every change is applied by {@link #write(Mutation)} under the write lock of a {@link StampedLock}.
+ * Readers never see the live ledger: {@link #snapshot()} returns a read-only point-in-time copy,
+ * created by {@link Ledger#snapshot()}, which later appends cannot change. A report can therefore run
+ * for as long as it likes on its snapshot without holding any lock, and never delays new entries.
+ * </p>
+ * <p>
+ * The latest snapshot is kept and handed to every reader until the ledger changes. Checking whether it
+ * is still current is an optimistic read of the ledger's modification count, which takes no lock, so
+ * readers only wait for a writer when they need a new snapshot while the writer is appending.
+ * </p>
+ * <p>
+ * A store can also be filled lazily from a {@link LedgerSource}, such as a {@link LineIndex} or a
+ * {@link PartitionedLedger}. Date range reports taken with {@link #snapshot(LocalDate, LocalDate)} then
+ * load only what the source needs for the range, new transactions are appended without loading it,
+ * and the source is only loaded in full by the first other write or full {@link #snapshot()}.
+ * </p>
+ */
+public class LedgerStore {
+    private final Ledger ledger;
+    private final StampedLock lock = new StampedLock();
+    private volatile Snapshot latest;
+    private volatile LedgerSource pending;
+
+    public LedgerStore() {
+        this(new Ledger());
+    }
+
+    /**
+     * Creates a store owning an existing ledger, which must not be used directly afterwards.
+     *
+     * @param ledger the {@link Ledger} to own
+     */
+    public LedgerStore(Ledger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * A change to the live ledger, applied under the write lock.
+     *
+     * @param <T> the type of the result
+     * @param <E> the type of exception the change may throw
+     */
+    @FunctionalInterface
+    public interface Mutation<T, E extends Exception> {
+        T apply(Ledger ledger) throws E;
+    }
+
+    /**
+     * Records a transaction outside the ledger before {@link #append(Transaction, Journal)} adds it.
+     *
+     * @param <E> the type of exception recording may throw
+     */
+    @FunctionalInterface
+    public interface Journal<E extends Exception> {
+        void record(Transaction t) throws E;
+    }
+
+    /**
+     * Applies a change to the live ledger. Writers are serialized, and snapshots taken meanwhile are unaffected.
+     *
+     * @param mutation the {@link Mutation} to apply
+     * @return the result of the mutation
+     * @throws E if the mutation fails, in which case the rows it appended before failing remain
+     */
+    public <T, E extends Exception> T write(Mutation<T, E> mutation) throws E {
+        long stamp = lock.writeLock();
+        try {
+            loadPending();
+            return mutation.apply(ledger);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Appends a {@link Transaction} as the newest row of the ledger.
+     * <p>
+     * While the rows of a {@link LedgerSource} are pending, the transaction is held with the other rows
+     * added since, and the pending rows stay unloaded.
+     * </p>
+     *
+     * @param t the transaction to append
+     * @return the row number assigned to the transaction among the rows held in memory
+     */
+    public int append(Transaction t) {
+        long stamp = lock.writeLock();
+        try {
+            return ledger.append(t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Records a {@link Transaction} elsewhere, such as in the data file, and then appends it as the newest
+     * row of the ledger, both under the write lock.
+     * <p>
+     * Concurrent writers therefore record their transactions in the same order in which the ledger holds
+     * them. Like {@link #append(Transaction)}, this leaves pending rows unloaded.
+     * </p>
+     *
+     * @param t       the transaction to record and append
+     * @param journal the {@link Journal} recording the transaction first
+     * @return the row number assigned to the transaction among the rows held in memory
+     * @throws E if the transaction could not be recorded, in which case it is not appended
+     */
+    public <E extends Exception> int append(Transaction t, Journal<E> journal) throws E {
+        long stamp = lock.writeLock();
+        try {
+            journal.record(t);
+            return ledger.append(t);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a read-only snapshot of the ledger as of the last completed write, loading any pending rows first.
+     *
+     * @return the snapshot, shared with other readers until the ledger changes
+     */
+    public Ledger snapshot() {
+        long stamp = lock.tryOptimisticRead();
+        Snapshot current = latest;
+        int modCount = ledger.modificationCount();
+        if (current != null && current.modCount == modCount && pending == null && lock.validate(stamp)) {
+            return current.ledger;
+        }
+
+        // Taking a snapshot marks the shared date index chunks on the live ledger, so it excludes writers
+        stamp = lock.writeLock();
+        try {
+            loadPending();
+            return snapshotLocked();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the rows dated within a range, without loading a lazily filled store in full.
+     * <p>
+     * While the rows of a {@link LedgerSource} are pending, the range is loaded from the source into a
+     * new ledger of its own, together with the rows added since. Otherwise, and whenever neither bound
+     * is given, this is the full {@link #snapshot()}, which the caller filters. An unbounded range loads
+     * the store once, instead of decoding the whole source into a throwaway ledger on every call.
+     * </p>
+     *
+     * @param startDate the first date of the range (inclusive), or {@code null} for no lower bound
+     * @param endDate   the last date of the range (inclusive), or {@code null} for no upper bound
+     * @return a ledger holding at least every row of the range, not to be changed by the caller
+     */
+    public Ledger snapshot(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null && endDate == null) return snapshot();
+
+        LedgerSource source;
+        Ledger added;
+        long stamp = lock.writeLock();
+        try {
+            source = pending;
+            added = (source != null) ? snapshotLocked() : null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (source == null) return snapshot();
+
+        Ledger range = source.load(startDate, endDate);
+        if (added.rowCount() > 0) range.appendAll(added);
+        return range;
+    }
+
+    /**
+     * Fills the store lazily from a {@link LedgerSource}, whose rows are loaded on the first write other
+     * than {@link #append(Transaction)}, or on the first full {@link #snapshot()}.
+     *
+     * @param source the stored rows to load
+     */
+    public void loadLazily(LedgerSource source) {
+        long stamp = lock.writeLock();
+        try {
+            loadPending();
+            pending = source;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns whether rows of a {@link LedgerSource} are still waiting to be loaded.
+     */
+    public boolean isPending() {
+        return pending != null;
+    }
+
+    /**
+     * Loads the rows of the pending {@link LedgerSource}, if any, ahead of the rows added since. Must hold the write lock.
+     */
+    private void loadPending() {
+        LedgerSource source = pending;
+        if (source == null) return;
+        pending = null;
+        if (ledger.rowCount() == 0) {
+            source.loadAll(ledger);
+            return;
+        }
+
+        Ledger added = new Ledger(false);
+        added.appendAll(ledger);
+        ledger.clear();
+        source.loadAll(ledger);
+        ledger.appendAll(added);
+    }
+
+    /**
+     * Returns the latest snapshot, taking a new one if the ledger changed. Must hold the write lock.
+     */
+    private Ledger snapshotLocked() {
+        Snapshot current = latest;
+        if (current == null || current.modCount != ledger.modificationCount()) {
+            current = new Snapshot(ledger.snapshot(), ledger.modificationCount());
+            latest = current;
+        }
+        return current.ledger;
+    }
+
+    private record Snapshot(Ledger ledger, int modCount) {
+    }
+}
@@ -0,0 +1,304 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Follows a data file that other processes append to, merging only the appended rows into a {@link LedgerStore}.
+ * <p>
+ * The tail remembers the byte offset up to which the file has been loaded. A daemon thread watches the
+ * file's directory with a {@link WatchService} and, once the file has stopped changing for the settle
+ * delay, marks the tail as changed. The rows are merged by {@link #poll(Runnable)}, which parses only
+ * the bytes past the offset through {@link LedgerFileLoader} as a single write to the store, so the
+ * cost of following the file is proportional to the appended data and the ledger's indexes are updated
+ * as for any other append.
+ * </p>
+ * <p>
+ * Only complete rows are merged. A row is complete once a line break follows it, or, as the last row
+ * of the file, once it ends in the two-decimal amount every row is written with. A row that another
+ * process is still writing is left past the offset for a later poll.
+ * </p>
+ * <p>
+ * Rows folded into the file by this session's own {@link LedgerWriter} are already in the ledger. The
+ * writer announces each range it appends through a {@link WriteAheadLog.FoldListener}, and those ranges
+ * are skipped. A file that shrank below the offset, was replaced by another file, or whose bytes just
+ * before the offset changed is reloaded from scratch.
+ * </p>
+ */
+public class LedgerTail implements AutoCloseable {
+    private static final int SCAN_BLOCK_SIZE = 4096;
+    private static final byte NEW_LINE = '\n';
+    private static final byte DELIMITER = '|';
+
+    private final Path path;
+    private final LedgerStore store;
+    private final long settleMillis;
+    private final List<long[]> ownRanges = new ArrayList<>();
+    private volatile boolean changed;
+    private long offset;
+    private Object fileKey;
+    private int tailChecksum;
+    private WatchService watcher;
+
+    /**
+     * Creates a tail for a data file whose first bytes have already been loaded into a store.
+     *
+     * @param path         the data file to follow
+     * @param store        the {@link LedgerStore} holding the rows loaded so far
+     * @param loadedBytes  the number of leading bytes of the file already in the ledger
+     * @param settleMillis how long the file must stay unchanged before its new rows are merged
+     * @throws IOException if the file cannot be read
+     */
+    public LedgerTail(Path path, LedgerStore store, long loadedBytes, long settleMillis) throws IOException {
+        this.path = path.toAbsolutePath().normalize();
+        this.store = store;
+        this.settleMillis = settleMillis;
+        this.offset = loadedBytes;
+        remember();
+    }
+
+    /**
+     * Starts watching the file on a daemon thread. Until then, changes are only picked up by {@link #ingest(Runnable)}.
+     *
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) return;
+
+        watcher = path.getFileSystem().newWatchService();
+        path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        WatchService service = watcher;
+        Thread thread = new Thread(() -> watch(service), "ledger-tail-" + path.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Records a range of the file appended by this session, whose rows are already in the ledger.
+     * <p>
+     * This is the {@link WriteAheadLog.FoldListener} of the file's {@link LedgerWriter}, and is called
+     * before the range is written, so a poll never mistakes the range for rows of another process.
+     * </p>
+     *
+     * @param offset the offset at which the range starts
+     * @param length the number of bytes in the range
+     */
+    public void skip(long offset, long length) {
+        synchronized (ownRanges) {
+            ownRanges.add(new long[]{offset, offset + length});
+        }
+    }
+
+    /**
+     * Merges the rows appended since the last poll, if the watcher has seen the file change.
+     *
+     * @param beforeReload run before the ledger is reloaded from scratch, for example to checkpoint
+     *                     rows that are in the ledger but not yet in the file
+     * @return the {@link Update} applied to the ledger
+     * @throws IOException if the file cannot be read
+     */
+    public Update poll(Runnable beforeReload) throws IOException {
+        if (!changed) return Update.NONE;
+        changed = false;
+        return ingest(beforeReload);
+    }
+
+    /**
+     * Merges the rows appended since the last call, whether or not the watcher has seen a change.
+     *
+     * @param beforeReload run before the ledger is reloaded from scratch
+     * @return the {@link Update} applied to the ledger
+     * @throws IOException if the file cannot be read
+     */
+    Update ingest(Runnable beforeReload) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Mid rotation, the replacement is picked up by the next event
+            return Update.NONE;
+        }
+        long end = attributes.size();
+        if (end < offset || !Objects.equals(attributes.fileKey(), fileKey) || tailChecksum != checksumBefore(offset)) {
+            beforeReload.run();
+            synchronized (ownRanges) {
+                ownRanges.clear();
+            }
+            return store.write(this::reload);
+        }
+
+        if (end == offset) return Update.NONE;
+        long size = completeRowsEnd(end);
+        if (size == offset) return Update.NONE;
+        return store.write(ledger -> append(ledger, size));
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher != null) watcher.close();
+        watcher = null;
+    }
+
+    private Update reload(Ledger ledger) throws IOException {
+        int rowCount = ledger.rowCount();
+        ledger.clear();
+        long end = Files.size(path);
+        LedgerFileLoader.load(path, ledger, 0, end);
+        offset = end;
+        remember();
+        return new Update(ledger.rowCount() - rowCount, true);
+    }
+
+    /**
+     * Loads the bytes between the offset and the end of the file, skipping the ranges of the own writer.
+     */
+    private Update append(Ledger ledger, long end) throws IOException {
+        int rowCount = ledger.rowCount();
+        long position = offset;
+        synchronized (ownRanges) {
+            ownRanges.sort((a, b) -> Long.compare(a[0], b[0]));
+            for (Iterator<long[]> ranges = ownRanges.iterator(); ranges.hasNext() && position < end; ) {
+                long[] range = ranges.next();
+                if (range[1] <= position) {
+                    ranges.remove();
+                    continue;
+                }
+                if (range[0] >= end) break;
+                if (range[0] > position) LedgerFileLoader.load(path, ledger, position, range[0]);
+                if (range[1] > end) {
+                    // The range is still being written, resume at its start next time
+                    position = range[0];
+                    end = position;
+                    break;
+                }
+                position = range[1];
+                ranges.remove();
+            }
+        }
+        if (position < end) LedgerFileLoader.load(path, ledger, position, end);
+        offset = Math.max(position, end);
+        remember();
+        return new Update(ledger.rowCount() - rowCount, false);
+    }
+
+    /**
+     * Returns the offset after the last complete row between the offset and the end of the file.
+     * <p>
+     * The last line is searched for backwards from the end. If it is not a complete row, the offset of
+     * the line break in front of it is returned, so the next load starts with that line break exactly
+     * as a load of the whole file would.
+     * </p>
+     */
+    private long completeRowsEnd(long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK_SIZE);
+            boolean lastLine = true;
+            for (long blockEnd = end; blockEnd > offset; blockEnd -= SCAN_BLOCK_SIZE) {
+                long blockStart = Math.max(offset, blockEnd - SCAN_BLOCK_SIZE);
+                block.clear().limit((int) (blockEnd - blockStart));
+                int read;
+                do {
+                    read = channel.read(block, blockStart + block.position());
+                } while (read > 0 && block.hasRemaining());
+                if (block.hasRemaining()) return offset;        // Truncated meanwhile, reloaded by the next poll
+
+                int lineBreak = block.limit() - 1;
+                while (lineBreak >= 0 && block.get(lineBreak) != NEW_LINE) lineBreak--;
+                if (lastLine && isCompleteRow(block, lineBreak + 1, block.limit())) {
+                    // A last line longer than a block is never a complete row
+                    if (lineBreak >= 0 || blockStart == offset) return end;
+                }
+                if (lineBreak >= 0) return blockStart + lineBreak;
+                lastLine = false;
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Checks whether a line has five values and ends in a two-decimal amount, so no byte of it is still to come.
+     */
+    private static boolean isCompleteRow(ByteBuffer buffer, int start, int end) {
+        if (end - start < 3 || buffer.get(end - 3) != '.'
+                || !Character.isDigit(buffer.get(end - 2)) || !Character.isDigit(buffer.get(end - 1))) {
+            return false;
+        }
+        int delimiters = 0;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == DELIMITER) delimiters++;
+        }
+        return delimiters == 4;
+    }
+
+    /**
+     * Waits for events on the file, then for the file to settle before marking the tail as changed.
+     */
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    relevant |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || path.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (!relevant) continue;
+
+                long size = -1;
+                while (true) {
+                    long current = Files.exists(path) ? Files.size(path) : -1;
+                    if (current == size) break;
+                    size = current;
+                    Thread.sleep(settleMillis);
+                }
+                changed = true;
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed by close()
+        } catch (IOException e) {
+            System.out.println("Stopped Following File " + path + " " + e);
+        }
+    }
+
+    private void remember() throws IOException {
+        fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        tailChecksum = checksumBefore(offset);
+    }
+
+    private int checksumBefore(long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return LedgerSnapshotFile.tailChecksum(channel, Math.min(position, channel.size()));
+        }
+    }
+
+    /**
+     * The outcome of a poll.
+     *
+     * @param rowsAdded the change in the number of rows of the ledger
+     * @param reloaded  whether the ledger was reloaded from scratch
+     */
+    public record Update(int rowsAdded, boolean reloaded) {
+        public static final Update NONE = new Update(0, false);
+    }
+}
@@ -0,0 +1,222 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived append channel for a data file that commits rows in groups through a {@link WriteAheadLog}.
+ * <p>
+ * Appended rows are framed as checksummed log records in a pending buffer and written to the log
+ * together, either when the buffer reaches the batch size, when the oldest pending row has waited
+ * for the maximum delay, or when the writer is flushed or closed. The {@link DurabilityMode} decides
+ * whether an append returns as soon as its row is buffered, or only after its batch was written (and forced).
+ * </p>
+ * <p>
+ * When several threads append at once, the first thread to reach the flush writes every pending
+ * row in one batch and the others find their rows already committed, so concurrent appends share
+ * a single write and fsync.
+ * </p>
+ * <p>
+ * A background compactor folds the log into the data file once it grows past the compaction size,
+ * and at a fixed interval otherwise. {@link #checkpoint()} folds it on demand, and closing the writer
+ * always folds it, so the data file is complete whenever the writer is closed.
+ * </p>
+ */
+public class LedgerWriter implements AutoCloseable {
+    private static final ScheduledExecutorService FLUSH_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-writer-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path path;
+    private final DurabilityMode durability;
+    private final int batchBytes;
+    private final long compactBytes;
+    private final Object flushLock = new Object();
+    private final ScheduledFuture<?> scheduledFlush;
+    private final ScheduledFuture<?> scheduledCompaction;
+    private final TransactionCodec.Encoder scratch = new TransactionCodec.Encoder();
+    private TransactionCodec.Encoder pending = new TransactionCodec.Encoder();
+    private TransactionCodec.Encoder writing = new TransactionCodec.Encoder();
+    private FileChannel log;
+    private long appendedSequence;
+    private volatile long committedSequence;
+    private boolean closed;
+    private volatile WriteAheadLog.FoldListener foldListener;
+
+    /**
+     * Opens a writer for a data file, using the configured compaction thresholds.
+     *
+     * @see #LedgerWriter(Path, DurabilityMode, int, long, long, long)
+     */
+    public LedgerWriter(Path path, DurabilityMode durability, int batchBytes, long maxDelayMillis) throws IOException {
+        this(path, durability, batchBytes, maxDelayMillis, TrackerConfig.WAL_COMPACT_BYTES,
+                TrackerConfig.WAL_COMPACT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a writer for a data file, first recovering any log left behind by a previous session.
+     *
+     * @param path                  the data file to append to
+     * @param durability            when an append is acknowledged
+     * @param batchBytes            the number of pending bytes that triggers a batch write
+     * @param maxDelayMillis        the longest time a pending row waits before its batch is written
+     * @param compactBytes          the log size that triggers a fold into the data file
+     * @param compactIntervalMillis the interval at which the log is folded into the data file
+     * @throws IOException if a leftover log cannot be recovered
+     */
+    public LedgerWriter(Path path, DurabilityMode durability, int batchBytes, long maxDelayMillis,
+                        long compactBytes, long compactIntervalMillis) throws IOException {
+        this.path = path;
+        this.durability = durability;
+        this.batchBytes = batchBytes;
+        this.compactBytes = compactBytes;
+        WriteAheadLog.recover(path);
+        scheduledFlush = FLUSH_SCHEDULER.scheduleWithFixedDelay(this::flushQuietly, maxDelayMillis, maxDelayMillis,
+                TimeUnit.MILLISECONDS);
+        scheduledCompaction = FLUSH_SCHEDULER.scheduleWithFixedDelay(this::checkpointQuietly, compactIntervalMillis,
+                compactIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends a transaction to the data file.
+     * <p>
+     * The row is added to the pending batch as a log record. Depending on the {@link DurabilityMode},
+     * the method then returns immediately or waits until the batch holding the row has been committed to the log.
+     * </p>
+     *
+     * @param t the transaction to append
+     * @throws IOException if the batch holding the row could not be written
+     */
+    public void append(Transaction t) throws IOException {
+        long sequence;
+        boolean batchFull;
+        synchronized (this) {
+            if (closed) throw new IOException("Writer for " + path + " is closed");
+            WriteAheadLog.appendRecord(t, pending, scratch);
+            sequence = ++appendedSequence;
+            batchFull = pending.length() >= batchBytes;
+        }
+
+        if (batchFull || durability != DurabilityMode.NONE) {
+            commit(sequence);
+        }
+    }
+
+    /**
+     * Writes every pending row to the log, forcing it to storage in {@link DurabilityMode#FSYNC} mode.
+     *
+     * @throws IOException if the batch could not be written
+     */
+    public void flush() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = appendedSequence;
+        }
+        commit(sequence);
+    }
+
+    /**
+     * Flushes every pending row and folds the log into the data file, leaving the data file complete.
+     *
+     * @throws IOException if the log could not be written or folded
+     */
+    public void checkpoint() throws IOException {
+        synchronized (flushLock) {
+            flush();
+            if (log == null) return;
+
+            WriteAheadLog.fold(path, log, foldListener);
+            log.close();
+            log = null;
+            Files.delete(WriteAheadLog.logPath(path));
+        }
+    }
+
+    /**
+     * Sets the listener told about every range of the data file this writer appends by folding its log,
+     * so a {@link LedgerTail} following the same file can skip rows that are already in the ledger.
+     *
+     * @param listener the {@link WriteAheadLog.FoldListener}, or {@code null} for none
+     */
+    public void setFoldListener(WriteAheadLog.FoldListener listener) {
+        foldListener = listener;
+    }
+
+    /**
+     * Flushes every pending row, folds the log into the data file and stops the background tasks.
+     * Closing an already closed writer has no effect.
+     *
+     * @throws IOException if the final batch could not be written or folded
+     */
+    @Override
+    public void close() throws IOException {
+        scheduledFlush.cancel(false);
+        scheduledCompaction.cancel(false);
+        synchronized (flushLock) {
+            try {
+                checkpoint();
+            } finally {
+                synchronized (this) {
+                    closed = true;
+                }
+                if (log != null) log.close();
+            }
+        }
+    }
+
+    /**
+     * Makes sure every row up to the given sequence number has been committed to the log, writing
+     * the pending batch if no other thread has done so already. The log is created on the first write.
+     */
+    private void commit(long sequence) throws IOException {
+        if (committedSequence >= sequence) return;
+
+        synchronized (flushLock) {
+            if (committedSequence >= sequence) return;
+
+            long batchSequence;
+            synchronized (this) {
+                // Swap buffers so appends can continue while this batch is written
+                TransactionCodec.Encoder batch = pending;
+                pending = writing.reset();
+                writing = batch;
+                batchSequence = appendedSequence;
+            }
+
+            if (writing.length() > 0) {
+                if (log == null) log = WriteAheadLog.create(path);
+                ByteBuffer bytes = writing.asByteBuffer();
+                while (bytes.hasRemaining()) log.write(bytes);
+                if (durability == DurabilityMode.FSYNC) log.force(false);
+
+                if (log.size() >= compactBytes) FLUSH_SCHEDULER.execute(this::checkpointQuietly);
+            }
+            committedSequence = batchSequence;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error Writing To File " + path + " " + e);
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.out.println("Error Writing To File " + path + " " + e);
+        }
+    }
+}
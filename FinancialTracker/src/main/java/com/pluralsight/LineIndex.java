@@ -0,0 +1,283 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index of the rows of a data file by byte offset and date, for loading rows only when they are needed.
+ * <p>
+ * Building the index scans the file once for line breaks and decodes only the fixed-width date at the
+ * start of every row, so it costs a fraction of a full load. The description, vendor and amount of a
+ * row are decoded on demand, when {@link #load(LocalDate, LocalDate)} is asked for a date range that
+ * includes it, or for every row at once by {@link #loadAll(Ledger)}.
+ * </p>
+ * <p>
+ * Rows decoded on demand are kept in a least-recently-used cache, so reopening a report over the same
+ * dates reads nothing from the file. The index describes the file as it was when it was built; rows
+ * appended later are picked up by loading the bytes past {@link #dataSize()}.
+ * </p>
+ */
+public class LineIndex implements LedgerSource {
+    private static final int MAP_SIZE = 1 << 26;            // 64 MiB, keeps every mapping well under the 2 GiB limit
+    private static final int READ_WINDOW_SIZE = 64 * 1024;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte DELIMITER = '|';
+    private static final int DATE_LENGTH = 10;
+
+    private final Path path;
+    private final long dataSize;
+    private final long[] starts;
+    private final int[] lengths;
+    private final int[] sortedDays;
+    private final int[] sortedRows;
+    private final Map<Integer, Transaction> cache;
+
+    private LineIndex(Path path, long dataSize, long[] starts, int[] lengths, int[] days, int rowCount, int cacheRows) {
+        this.path = path;
+        this.dataSize = dataSize;
+        this.starts = Arrays.copyOf(starts, rowCount);
+        this.lengths = Arrays.copyOf(lengths, rowCount);
+        this.sortedDays = Arrays.copyOf(days, rowCount);
+        this.sortedRows = new int[rowCount];
+        sortByDay(sortedDays, sortedRows);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Transaction> eldest) {
+                return size() > cacheRows;
+            }
+        };
+    }
+
+    /**
+     * Scans a data file and indexes the offset and date of every row.
+     * <p>
+     * Lines are handled exactly as by {@link LedgerFileLoader}: only lines with five values are
+     * indexed, every other line is skipped.
+     * </p>
+     *
+     * @param path      the path of the data file
+     * @param cacheRows the number of decoded rows kept in memory
+     * @return the index of the file as it is now
+     * @throws IOException if the file does not exist or cannot be read
+     * @throws java.time.DateTimeException if a row has an invalid date
+     */
+    public static LineIndex build(Path path, int cacheRows) throws IOException {
+        long[] starts = new long[1024];
+        int[] lengths = new int[1024];
+        int[] days = new int[1024];
+        int rowCount = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            TransactionCodec.Decoder decoder = new TransactionCodec.Decoder();
+            long chunkStart = 0;
+            while (chunkStart < size) {
+                int limit = (int) Math.min(MAP_SIZE, size - chunkStart);
+                boolean lastChunk = chunkStart + limit == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, limit);
+
+                int lineStart = 0;
+                while (lineStart < limit) {
+                    int lineEnd = lineStart;
+                    int delimiters = 0;
+                    for (byte b; lineEnd < limit && (b = buffer.get(lineEnd)) != NEW_LINE; lineEnd++) {
+                        if (b == DELIMITER) delimiters++;
+                    }
+                    if (lineEnd == limit && !lastChunk) break;      // The line continues in the next mapping
+
+                    int end = lineEnd;
+                    if (end > lineStart && buffer.get(end - 1) == CARRIAGE_RETURN) end--;
+
+                    int day = Integer.MIN_VALUE;
+                    if (isCanonicalRow(buffer, lineStart, end, delimiters)) {
+                        day = TransactionCodec.canonicalEpochDay(buffer, lineStart);
+                    }
+                    if (day == Integer.MIN_VALUE && end > lineStart) day = decoder.decodeRowDate(buffer, lineStart, end);
+                    if (day != Integer.MIN_VALUE) {
+                        if (rowCount == starts.length) {
+                            starts = Arrays.copyOf(starts, rowCount * 2);
+                            lengths = Arrays.copyOf(lengths, rowCount * 2);
+                            days = Arrays.copyOf(days, rowCount * 2);
+                        }
+                        starts[rowCount] = chunkStart + lineStart;
+                        lengths[rowCount] = end - lineStart;
+                        days[rowCount++] = day;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+
+                if (lineStart == 0) throw new IOException("Line longer than " + MAP_SIZE + " bytes at offset " + chunkStart);
+                chunkStart += lineStart;
+            }
+            return new LineIndex(path, size, starts, lengths, days, rowCount, cacheRows);
+        }
+    }
+
+    /**
+     * Decodes the rows dated within a range into a new {@link Ledger}, in file order.
+     * <p>
+     * The range is resolved by binary search over the indexed dates, and only the rows inside it are
+     * read and decoded, each at most once while it stays in the cache.
+     * </p>
+     *
+     * @param startDate the first date of the range (inclusive), or {@code null} for no lower bound
+     * @param endDate   the last date of the range (inclusive), or {@code null} for no upper bound
+     * @return a new ledger holding the rows of the range
+     * @throws UncheckedIOException if the file cannot be read or no longer holds the indexed rows
+     */
+    @Override
+    public Ledger load(LocalDate startDate, LocalDate endDate) {
+        int from = (startDate == null) ? 0 : lowerBound(startDate.toEpochDay());
+        int to = (endDate == null) ? sortedDays.length : lowerBound(endDate.toEpochDay() + 1);
+        int[] rows = Arrays.copyOfRange(sortedRows, from, Math.max(from, to));
+        Arrays.sort(rows);
+
+        Ledger ledger = new Ledger();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            RowReader reader = new RowReader(channel);
+            for (int row : rows) {
+                Transaction t = transaction(reader, row);
+                if (t != null) ledger.append(t);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ledger;
+    }
+
+    /**
+     * Loads every indexed row into a ledger, as a full load of the bytes the index covers.
+     *
+     * @param ledger the ledger the rows are appended to
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public void loadAll(Ledger ledger) {
+        try {
+            LedgerFileLoader.load(path, ledger, 0, dataSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the file the index covers, the offset from which appended rows are read.
+     */
+    public long dataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Returns the number of indexed rows.
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    private Transaction transaction(RowReader reader, int row) throws IOException {
+        synchronized (cache) {
+            Transaction cached = cache.get(row);
+            if (cached != null) return cached;
+        }
+        Transaction t = reader.read(starts[row], lengths[row]);
+        if (t != null) {
+            synchronized (cache) {
+                cache.put(row, t);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Checks whether a line has exactly five fields and starts with an untrimmed date, so its date can be
+     * read straight from the first ten bytes. Other lines are left to the full field handling of the decoder.
+     */
+    private static boolean isCanonicalRow(ByteBuffer buffer, int start, int end, int delimiters) {
+        return delimiters == 4 && end - start > DATE_LENGTH
+                && buffer.get(start + DATE_LENGTH) == DELIMITER && buffer.get(end - 1) != DELIMITER;
+    }
+
+    /**
+     * Returns the first sorted position whose date is on or after a day.
+     */
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = sortedDays.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedDays[middle] < epochDay) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Sorts the dates of the rows, filling in the row number of every sorted position.
+     * <p>
+     * Data files are mostly written in date order, so an already sorted file is detected in one pass.
+     * Otherwise every date is packed with its row number into a {@code long}, which sorts both at once.
+     * </p>
+     */
+    private static void sortByDay(int[] days, int[] rows) {
+        boolean sorted = true;
+        int minDay = Integer.MAX_VALUE;
+        for (int row = 0; row < days.length; row++) {
+            rows[row] = row;
+            if (row > 0 && days[row] < days[row - 1]) sorted = false;
+            minDay = Math.min(minDay, days[row]);
+        }
+        if (sorted) return;
+
+        long[] packed = new long[days.length];
+        for (int row = 0; row < days.length; row++) packed[row] = ((long) days[row] - minDay) << 32 | row;
+        Arrays.parallelSort(packed);
+        for (int i = 0; i < packed.length; i++) {
+            rows[i] = (int) packed[i];
+            days[i] = (int) ((packed[i] >>> 32) + minDay);
+        }
+    }
+
+    /**
+     * Reads rows through a window of the file, so rows that lie close together cost a single read.
+     */
+    private static class RowReader {
+        private final FileChannel channel;
+        private final TransactionCodec.Decoder decoder = new TransactionCodec.Decoder();
+        private ByteBuffer window = ByteBuffer.allocate(READ_WINDOW_SIZE);
+        private long windowStart = -1;
+        private int windowLength;
+
+        RowReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        Transaction read(long start, int length) throws IOException {
+            if (windowStart < 0 || start < windowStart || start + length > windowStart + windowLength) {
+                if (length > window.capacity()) window = ByteBuffer.allocate(length);
+                window.clear();
+                int read;
+                do {
+                    read = channel.read(window, start + window.position());
+                } while (read > 0 && window.hasRemaining());
+                windowStart = start;
+                windowLength = window.position();
+                if (length > windowLength) throw new IOException("Data file changed since it was indexed");
+            }
+            int offset = (int) (start - windowStart);
+            return decoder.decode(window, offset, offset + length);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.pluralsight;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.Scanner;
 
 import static com.pluralsight.TableManager.*;
@@ -19,10 +18,11 @@ public class MenuManager {
      * </p>
      *
      * @param scanner     a {@link Scanner} instance for reading user input
-     * @param transactions an {@link ArrayList} containing the transactions to be displayed
+     * @param transactions the {@link LedgerStore} containing the transactions to be displayed
      */
-    public static void displayLedgerMenu(Scanner scanner, ArrayList<Transaction> transactions) {
+    public static void displayLedgerMenu(Scanner scanner, LedgerStore transactions) {
         while (true) {
+            TransactionManager.pollFollowedFiles();
             System.out.println("\nLedger Menu");
             System.out.println("Choose an option:");
             System.out.println("\tA) All");
@@ -34,18 +34,9 @@ public class MenuManager {
             String input = scanner.nextLine().trim();
 
             switch (input.toUpperCase()) {
-                case "A" -> {
-                    displayFullLedger(transactions);
-                    scanner.nextLine();
-                }
-                case "D" -> {
-                    filterTransactionsByType(true, transactions);
-                    scanner.nextLine();
-                }
-                case "P" -> {
-                    filterTransactionsByType(false, transactions);
-                    scanner.nextLine();
-                }
+                case "A" -> displayFullLedger(scanner, transactions);
+                case "D" -> filterTransactionsByType(scanner, true, transactions);
+                case "P" -> filterTransactionsByType(scanner, false, transactions);
                 case "R" -> displayReportsMenu(scanner,transactions);
                 case "H" -> {
                     return;
@@ -55,7 +46,7 @@ public class MenuManager {
         }
     }
 
-    public static void displayTransactionAddMenu(Scanner scanner, boolean isPayment, ArrayList<Transaction> transactions, String targetFileName){
+    public static void displayTransactionAddMenu(Scanner scanner, boolean isPayment, LedgerStore transactions, String targetFileName){
         String verbiage = (isPayment) ? "Payment" : "Deposit";
         System.out.println("\n"+verbiage+" Adding Menu\nType 'Exit' To Return Home\n");
         // Get validated date and time inputs
@@ -71,14 +62,14 @@ public class MenuManager {
         String vendor = scanner.nextLine().trim();
 
         // Get validated amount input
-        Double amount = getValidatedAmount(scanner);
+        long cents = getValidatedAmount(scanner);
 
         // Adjust the amount based on the transaction type
         if (isPayment) {
-            amount = -amount;
+            cents = -cents;
         }
 
-        Transaction newTransaction = new Transaction(date, time, description, vendor, amount);
+        Transaction newTransaction = new Transaction(date, time, description, vendor, cents);
         TransactionManager.addNewTransaction(newTransaction,transactions,targetFileName);
     }
 
@@ -100,10 +91,11 @@ public class MenuManager {
      * </p>
      *
      * @param scanner     a {@link Scanner} instance for reading user input
-     * @param transactions an {@link ArrayList} containing the transactions to be filtered and displayed
+     * @param transactions the {@link LedgerStore} containing the transactions to be filtered and displayed
      */
-    private static void displayReportsMenu(Scanner scanner, ArrayList<Transaction> transactions) {
+    private static void displayReportsMenu(Scanner scanner, LedgerStore transactions) {
         while (true) {
+            TransactionManager.pollFollowedFiles();
             System.out.println("\nReports Menu");
             System.out.println("Choose an option:");
             System.out.println("\t1) Month To Date");
@@ -117,24 +109,26 @@ public class MenuManager {
             String input = scanner.nextLine().trim();
 
             switch (input) {
-                case "1" -> filterTransactionsByDate(LocalDate.now().withDayOfMonth(1), LocalDate.now(), transactions);
-                case "2" -> filterTransactionsByDate(LocalDate.now().minusMonths(1).withDayOfMonth(1),
+                case "1" -> filterTransactionsByDate(scanner, LocalDate.now().withDayOfMonth(1), LocalDate.now(), transactions);
+                case "2" -> filterTransactionsByDate(scanner, LocalDate.now().minusMonths(1).withDayOfMonth(1),
                         LocalDate.now().minusMonths(1).withDayOfMonth(LocalDate.now().minusMonths(1).lengthOfMonth()), transactions);
-                case "3" -> filterTransactionsByDate(LocalDate.now().withMonth(1).withDayOfMonth(1), LocalDate.now(), transactions);
-                case "4" -> filterTransactionsByDate(LocalDate.now().minusYears(1).withMonth(1).withDayOfMonth(1),
+                case "3" -> filterTransactionsByDate(scanner, LocalDate.now().withMonth(1).withDayOfMonth(1), LocalDate.now(), transactions);
+                case "4" -> filterTransactionsByDate(scanner, LocalDate.now().minusYears(1).withMonth(1).withDayOfMonth(1),
                     LocalDate.now().minusYears(1).withMonth(12).withDayOfMonth(31), transactions);
                 case "5" -> {
                     System.out.println("Enter The Vendor Name To Search: ");
                     String vendorName = scanner.nextLine().trim();
-                    filterTransactionsByVendor(vendorName, transactions);
+                    filterTransactionsByVendor(scanner, vendorName, transactions);
                 }
                 case "6" -> displayCustomSearchMenu(scanner, transactions);
                 case "0" -> {
                     return;
                 }
-                default -> System.out.println("\nInvalid option");
+                default -> {
+                    System.out.println("\nInvalid option");
+                    scanner.nextLine();
+                }
             }
-            scanner.nextLine();
         }
     }
 
@@ -148,15 +142,15 @@ public class MenuManager {
      * </p>
      *
      * @param scanner     a {@link Scanner} instance for reading user input
-     * @param transactions an {@link ArrayList} containing the transactions to be filtered
+     * @param transactions the {@link LedgerStore} containing the transactions to be filtered
      */
-    private static void displayCustomSearchMenu(Scanner scanner, ArrayList<Transaction> transactions){
+    private static void displayCustomSearchMenu(Scanner scanner, LedgerStore transactions){
         LocalDate startDate;
         LocalDate endDate;
         String description = null;
         String vendor = null;
-        Double maxAmount;
-        Double minAmount;
+        long maxCents;
+        long minCents;
 
         System.out.println("\nTo filter for a specific value, input for the corresponding prompt\nTo ignore a filter, press 'Enter'");
 
@@ -175,11 +169,11 @@ public class MenuManager {
         if(!input.isBlank())vendor = input;
 
         System.out.println("\nMaximum Amount Filter");
-        maxAmount = getValidatedAmount(scanner,true);
+        maxCents = getValidatedAmount(scanner, Long.MAX_VALUE);
 
         System.out.println("\nMinimum Amount Filter");
-        minAmount = getValidatedAmount(scanner,true);
+        minCents = getValidatedAmount(scanner, Long.MIN_VALUE);
 
-        filterTransactionsByCustom(startDate,endDate,description,vendor,minAmount,maxAmount,transactions);
+        filterTransactionsByCustom(scanner, startDate,endDate,description,vendor,minCents,maxCents,transactions);
     }
 }
@@ -0,0 +1,138 @@
+package com.pluralsight;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms of the hot paths of the tracker, published over JMX.
+ * <p>
+ * Instrumentation is off unless {@link TrackerConfig#METRICS} is set. Every call site checks
+ * {@link #ENABLED} before reading the clock, and as a {@code static final} flag the JIT removes the
+ * disabled branches entirely. When enabled, every {@link LatencyHistogram} is registered with the
+ * platform MBean server as {@code com.pluralsight.tracker:type=Latency,name=<name>}, where tools such
+ * as JConsole can read its percentiles, and is appended to {@link TrackerConfig#METRICS_DUMP_FILE}
+ * at a fixed interval, and once more on exit, if a dump file is configured.
+ * </p>
+ */
+public class Metrics {
+    public static final boolean ENABLED = TrackerConfig.METRICS;
+
+    /** Loading a data file, with the rows loaded. */
+    public static final LatencyHistogram LOAD = new LatencyHistogram("load", "rows");
+    /** Handing a new transaction to its writer, with the rows appended. */
+    public static final LatencyHistogram APPEND = new LatencyHistogram("append", "rows");
+    /** Rendering a page of a table to the console, with the bytes written. */
+    public static final LatencyHistogram RENDER = new LatencyHistogram("render", "bytes");
+    /** Scanning for a page of the full ledger, with the positions visited and matched. */
+    public static final LatencyHistogram SCAN_ALL = new LatencyHistogram("scan.all", "positions");
+    /** Scanning for a page of the deposits or payments. */
+    public static final LatencyHistogram SCAN_TYPE = new LatencyHistogram("scan.type", "positions");
+    /** Scanning for a page of a date range. */
+    public static final LatencyHistogram SCAN_DATE = new LatencyHistogram("scan.date", "positions");
+    /** Scanning for a page of a vendor search. */
+    public static final LatencyHistogram SCAN_VENDOR = new LatencyHistogram("scan.vendor", "positions");
+    /** Scanning for a page of a custom search. */
+    public static final LatencyHistogram SCAN_CUSTOM = new LatencyHistogram("scan.custom", "positions");
+
+    private static final List<LatencyHistogram> HISTOGRAMS =
+            List.of(LOAD, APPEND, RENDER, SCAN_ALL, SCAN_TYPE, SCAN_DATE, SCAN_VENDOR, SCAN_CUSTOM);
+
+    static {
+        if (ENABLED) {
+            register();
+            if (TrackerConfig.METRICS_DUMP_FILE != null) {
+                scheduleDump(Path.of(TrackerConfig.METRICS_DUMP_FILE), TrackerConfig.METRICS_DUMP_INTERVAL_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Registers every histogram with the platform MBean server, skipping those already registered.
+     */
+    static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            try {
+                ObjectName name = objectName(histogram);
+                if (!server.isRegistered(name)) server.registerMBean(histogram, name);
+            } catch (JMException e) {
+                System.out.println("Error Registering Metric " + histogram.name() + " " + e);
+            }
+        }
+    }
+
+    static ObjectName objectName(LatencyHistogram histogram) throws JMException {
+        return new ObjectName("com.pluralsight.tracker:type=Latency,name=" + histogram.name());
+    }
+
+    /**
+     * Appends a line per histogram to a file, each prefixed with the current time.
+     *
+     * @param file the dump file, created if missing
+     * @throws IOException if the file cannot be written
+     */
+    public static void dump(Path file) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        String now = Instant.now().toString();
+        for (LatencyHistogram histogram : HISTOGRAMS) lines.append(now).append(' ').append(histogram).append('\n');
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void scheduleDump(Path file, long intervalMillis) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable dump = () -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                System.out.println("Error Writing Metrics To " + file + " " + e);
+            }
+        };
+        dumper.scheduleWithFixedDelay(dump, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(dump, "metrics-final-dump"));
+    }
+
+    /**
+     * Output stream counting the bytes written through it, used to measure rendered output.
+     */
+    public static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        public CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        public long count() {
+            return count;
+        }
+    }
+}
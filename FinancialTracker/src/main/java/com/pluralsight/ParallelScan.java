@@ -0,0 +1,101 @@
+package com.pluralsight;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Fork-join scan of a range of ledger positions, collecting the positions whose rows match a filter.
+ * <p>
+ * The range is cut into splits of at most the split size, and the splits are halved recursively
+ * between tasks, so idle workers of the pool steal the remaining halves. Every split collects its
+ * matching positions into an array of its own, and the arrays are concatenated once in split order,
+ * which keeps the positions in ascending order, the order a {@link RowCursor} expects to walk from
+ * the top down for newest-first output.
+ * </p>
+ * <p>
+ * The scan only reads the ledger, which must not be modified while it runs.
+ * </p>
+ */
+public class ParallelScan {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    /**
+     * Collects the matching positions of {@code [from, to)} on the common fork-join pool.
+     *
+     * @param from      the lowest position tested (inclusive)
+     * @param to        the highest position tested (exclusive)
+     * @param rowAt     maps a position to its row number
+     * @param filter    an {@link IntPredicate} over row numbers
+     * @param splitSize the largest number of positions tested by one task
+     * @return the matching positions, in ascending order
+     */
+    public static int[] matchingPositions(int from, int to, IntUnaryOperator rowAt, IntPredicate filter, int splitSize) {
+        if (from >= to) return NO_POSITIONS;
+
+        int size = Math.max(1, splitSize);
+        int[][] splits = new int[(int) (((long) to - from + size - 1) / size)][];
+        ForkJoinPool.commonPool().invoke(new ScanTask(splits, 0, splits.length, from, to, size, rowAt, filter));
+
+        int count = 0;
+        for (int[] split : splits) count += split.length;
+        int[] positions = new int[count];
+        int offset = 0;
+        for (int[] split : splits) {
+            System.arraycopy(split, 0, positions, offset, split.length);
+            offset += split.length;
+        }
+        return positions;
+    }
+
+    /**
+     * Scans the splits {@code [firstSplit, lastSplit)}, forking the upper half while more than one remains.
+     */
+    private static class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] splits;
+        private final int firstSplit;
+        private final int lastSplit;
+        private final int from;
+        private final int to;
+        private final int splitSize;
+        private final IntUnaryOperator rowAt;
+        private final IntPredicate filter;
+
+        ScanTask(int[][] splits, int firstSplit, int lastSplit, int from, int to, int splitSize,
+                 IntUnaryOperator rowAt, IntPredicate filter) {
+            this.splits = splits;
+            this.firstSplit = firstSplit;
+            this.lastSplit = lastSplit;
+            this.from = from;
+            this.to = to;
+            this.splitSize = splitSize;
+            this.rowAt = rowAt;
+            this.filter = filter;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastSplit - firstSplit > 1) {
+                int middle = (firstSplit + lastSplit) >>> 1;
+                invokeAll(new ScanTask(splits, firstSplit, middle, from, to, splitSize, rowAt, filter),
+                        new ScanTask(splits, middle, lastSplit, from, to, splitSize, rowAt, filter));
+                return;
+            }
+
+            int start = from + firstSplit * splitSize;
+            int end = (int) Math.min(to, (long) start + splitSize);
+            int[] positions = new int[Math.min(end - start, 64)];
+            int count = 0;
+            for (int position = start; position < end; position++) {
+                if (!filter.test(rowAt.applyAsInt(position))) continue;
+                if (count == positions.length) positions = Arrays.copyOf(positions, Math.min(end - start, count * 2));
+                positions[count++] = position;
+            }
+            splits[firstSplit] = (count == positions.length) ? positions : Arrays.copyOf(positions, count);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Ledger stored in a directory as one data file per month or per year, described by a manifest.
+ * <p>
+ * Every partition is an ordinary data file named after its period, such as {@code 2024-10.csv} or
+ * {@code 2024.csv}, holding only the rows dated within that period. The manifest, {@value #MANIFEST_NAME},
+ * records the {@link Granularity} and, for every partition, the dates of its first and last rows, its row
+ * count, its deposit and payment totals and its size in bytes. A new transaction is appended to the
+ * partition of its date only, which is created on first use, so the files never grow past one period.
+ * </p>
+ * <p>
+ * As a {@link LedgerSource}, the directory is loaded lazily: a date range report reads only the
+ * partitions whose dates overlap the range, as recorded in the manifest, and the others are never
+ * loaded into memory. Partitions are loaded as they were when the directory was opened; rows appended
+ * later are held by the {@link LedgerStore} itself.
+ * </p>
+ * <p>
+ * Appends update the manifest in memory only, and {@link #flushManifest()} rewrites it atomically when
+ * the partition writers are checkpointed or closed, so an append costs no file I/O beyond its own row.
+ * When a directory is opened, every partition whose file size differs from the manifest, or that the
+ * manifest does not list, is scanned again, so a manifest left behind by an interrupted session is repaired. {@link #migrate(Path, Path, Granularity)}
+ * splits an existing single-file ledger into partitions.
+ * </p>
+ */
+public class PartitionedLedger implements LedgerSource {
+    public static final String MANIFEST_NAME = "partitions.manifest";
+    private static final String FILE_SUFFIX = ".csv";
+    private static final Pattern PARTITION_FILE = Pattern.compile("\\d{4}(-\\d{2})?\\.csv");
+    private static final String GRANULARITY_KEY = "granularity";
+    private static final String DELIMITER = "|";
+
+    /**
+     * The period covered by each partition.
+     */
+    public enum Granularity {
+        MONTH,
+        YEAR;
+
+        /**
+         * Returns the name of the partition holding a date, such as {@code 2024-10} or {@code 2024}.
+         */
+        public String partitionOf(LocalDate date) {
+            return (this == MONTH) ? YearMonth.from(date).toString() : String.format("%04d", date.getYear());
+        }
+    }
+
+    /**
+     * Summary of one partition, as recorded in the manifest.
+     *
+     * @param name         the name of the partition, which is also the name of its file without suffix
+     * @param firstDate    the date of the earliest row
+     * @param lastDate     the date of the latest row
+     * @param rows         the number of rows
+     * @param depositCents the total of the deposits in cents
+     * @param paymentCents the total of the payments in cents, zero or negative
+     * @param bytes        the size of the partition file
+     */
+    public record Partition(String name, LocalDate firstDate, LocalDate lastDate, int rows, long depositCents,
+                            long paymentCents, long bytes) {
+
+        /**
+         * Returns whether any row of the partition may fall within a date range.
+         */
+        public boolean overlaps(LocalDate startDate, LocalDate endDate) {
+            return (startDate == null || !lastDate.isBefore(startDate)) && (endDate == null || !firstDate.isAfter(endDate));
+        }
+
+        Partition plus(Transaction t, long rowBytes) {
+            return new Partition(name, t.date().isBefore(firstDate) ? t.date() : firstDate,
+                    t.date().isAfter(lastDate) ? t.date() : lastDate, rows + 1,
+                    depositCents + Math.max(0, t.cents()), paymentCents + Math.min(0, t.cents()), bytes + rowBytes);
+        }
+
+        static Partition of(String name, Transaction t, long rowBytes) {
+            return new Partition(name, t.date(), t.date(), 1, Math.max(0, t.cents()), Math.min(0, t.cents()), rowBytes);
+        }
+    }
+
+    private final Path directory;
+    private final Granularity granularity;
+    private final Map<String, Partition> opened;
+    private final Map<String, Partition> partitions;
+    private final TransactionCodec.Encoder encoder = new TransactionCodec.Encoder();
+    private boolean manifestChanged;
+
+    private PartitionedLedger(Path directory, Granularity granularity, Map<String, Partition> partitions) {
+        this.directory = directory;
+        this.granularity = granularity;
+        this.opened = new TreeMap<>(partitions);
+        this.partitions = new TreeMap<>(partitions);
+    }
+
+    /**
+     * Opens a partitioned directory, repairing its manifest if a partition changed since it was written.
+     *
+     * @param directory the directory holding the partitions and their manifest
+     * @return the partitioned ledger
+     * @throws IOException if the directory or a partition cannot be read
+     */
+    public static PartitionedLedger open(Path directory) throws IOException {
+        Granularity granularity = null;
+        Map<String, Partition> recorded = new TreeMap<>();
+        Path manifest = directory.resolve(MANIFEST_NAME);
+        if (Files.exists(manifest)) {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(Pattern.quote(DELIMITER));
+                if (fields.length == 2 && fields[0].equals(GRANULARITY_KEY)) {
+                    granularity = Granularity.valueOf(fields[1].trim());
+                } else if (fields.length == 7) {
+                    recorded.put(fields[0], new Partition(fields[0], LocalDate.parse(fields[1]), LocalDate.parse(fields[2]),
+                            Integer.parseInt(fields[3]), TransactionCodec.parseCents(fields[4]),
+                            TransactionCodec.parseCents(fields[5]), Long.parseLong(fields[6])));
+                }
+            }
+        }
+
+        Map<String, Partition> current = new TreeMap<>();
+        for (Path file : partitionFiles(directory)) {
+            String name = file.getFileName().toString().replace(FILE_SUFFIX, "");
+            if (granularity == null) granularity = (name.length() == 4) ? Granularity.YEAR : Granularity.MONTH;
+            Partition partition = recorded.get(name);
+            if (partition == null || partition.bytes() != Files.size(file)) partition = scan(name, file);
+            if (partition != null) current.put(name, partition);
+        }
+
+        PartitionedLedger ledger = new PartitionedLedger(directory, (granularity == null) ? Granularity.MONTH : granularity, current);
+        if (!current.equals(recorded) || !Files.exists(manifest)) ledger.writeManifest();
+        return ledger;
+    }
+
+    /**
+     * Splits a single-file ledger into a new partitioned directory, leaving the original file untouched.
+     *
+     * @param dataFile    the data file to split
+     * @param directory   the directory to create the partitions in, which must not hold a manifest yet
+     * @param granularity the period covered by each partition
+     * @return the partitioned ledger
+     * @throws IOException if the data file cannot be read, the directory is already partitioned, or a
+     *                     partition cannot be written
+     */
+    public static PartitionedLedger migrate(Path dataFile, Path directory, Granularity granularity) throws IOException {
+        if (Files.exists(directory.resolve(MANIFEST_NAME))) throw new IOException(directory + " Is Already Partitioned");
+
+        Ledger ledger = new Ledger(false);
+        LedgerFileLoader.load(dataFile, ledger);
+
+        Map<String, TransactionCodec.Encoder> rows = new TreeMap<>();
+        Map<String, Partition> partitions = new TreeMap<>();
+        for (int row = 0; row < ledger.rowCount(); row++) {
+            Transaction t = ledger.transaction(row);
+            String name = granularity.partitionOf(t.date());
+            TransactionCodec.Encoder encoder = rows.computeIfAbsent(name, key -> new TransactionCodec.Encoder());
+            int before = encoder.length();
+            long rowBytes = encoder.append(t).length() - before;
+            Partition partition = partitions.get(name);
+            partitions.put(name, (partition == null) ? Partition.of(name, t, rowBytes) : partition.plus(t, rowBytes));
+        }
+
+        Files.createDirectories(directory);
+        for (Map.Entry<String, TransactionCodec.Encoder> entry : rows.entrySet()) {
+            try (OutputStream out = Files.newOutputStream(directory.resolve(entry.getKey() + FILE_SUFFIX),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                entry.getValue().writeTo(out);
+            }
+        }
+
+        PartitionedLedger partitioned = new PartitionedLedger(directory, granularity, partitions);
+        partitioned.writeManifest();
+        return partitioned;
+    }
+
+    /**
+     * Lists the partition files of a directory, oldest period first.
+     *
+     * @param directory the partitioned directory
+     * @return the paths of the partition files
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> partitionFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> PARTITION_FILE.matcher(file.getFileName().toString()).matches()).sorted().toList();
+        }
+    }
+
+    /**
+     * Loads the partitions whose rows may fall within a date range into a new {@link Ledger}.
+     *
+     * @param startDate the first date of the range (inclusive), or {@code null} for no lower bound
+     * @param endDate   the last date of the range (inclusive), or {@code null} for no upper bound
+     * @return a new ledger holding every row of the overlapping partitions
+     * @throws UncheckedIOException if a partition cannot be read
+     */
+    @Override
+    public Ledger load(LocalDate startDate, LocalDate endDate) {
+        Ledger ledger = new Ledger();
+        for (Partition partition : opened.values()) {
+            if (partition.overlaps(startDate, endDate)) loadPartition(partition, ledger);
+        }
+        return ledger;
+    }
+
+    /**
+     * Loads every partition, oldest period first.
+     *
+     * @param ledger the ledger the rows are appended to
+     * @throws UncheckedIOException if a partition cannot be read
+     */
+    @Override
+    public void loadAll(Ledger ledger) {
+        for (Partition partition : opened.values()) loadPartition(partition, ledger);
+    }
+
+    /**
+     * Records a new transaction in the partition of its date and returns the file it must be written to.
+     * <p>
+     * Only the manifest in memory is updated. Until {@link #flushManifest()} runs, the manifest on disk
+     * lags the partition files, and a partition whose size no longer matches it is scanned again when the
+     * directory is next opened.
+     * </p>
+     *
+     * @param t the transaction to append
+     * @return the path of the partition file
+     */
+    public synchronized Path append(Transaction t) {
+        String name = granularity.partitionOf(t.date());
+        long rowBytes = encoder.encode(t).length();
+        Partition partition = partitions.get(name);
+        partitions.put(name, (partition == null) ? Partition.of(name, t, rowBytes) : partition.plus(t, rowBytes));
+        manifestChanged = true;
+        return partitionFile(name);
+    }
+
+    /**
+     * Rewrites the manifest if transactions were appended since it was last written.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    public synchronized void flushManifest() throws IOException {
+        if (manifestChanged) writeManifest();
+    }
+
+    /**
+     * Returns the current summary of every partition, oldest period first.
+     */
+    public synchronized Collection<Partition> partitions() {
+        return new ArrayList<>(partitions.values());
+    }
+
+    public Granularity granularity() {
+        return granularity;
+    }
+
+    private Path partitionFile(String name) {
+        return directory.resolve(name + FILE_SUFFIX);
+    }
+
+    private void loadPartition(Partition partition, Ledger ledger) {
+        try {
+            LedgerFileLoader.load(partitionFile(partition.name()), ledger, 0, partition.bytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Scans a partition file to rebuild its manifest entry.
+     *
+     * @return the entry, or {@code null} if the file holds no rows
+     */
+    private static Partition scan(String name, Path file) throws IOException {
+        long bytes = Files.size(file);
+        Ledger ledger = new Ledger(false);
+        LedgerFileLoader.load(file, ledger, 0, bytes);
+        if (ledger.rowCount() == 0) return null;
+
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        long depositCents = 0;
+        long paymentCents = 0;
+        for (int row = 0; row < ledger.rowCount(); row++) {
+            firstDay = Math.min(firstDay, ledger.epochDay(row));
+            lastDay = Math.max(lastDay, ledger.epochDay(row));
+            long cents = ledger.cents(row);
+            if (cents > 0) depositCents += cents;
+            else paymentCents += cents;
+        }
+        return new Partition(name, LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay), ledger.rowCount(),
+                depositCents, paymentCents, bytes);
+    }
+
+    private synchronized void writeManifest() throws IOException {
+        manifestChanged = false;
+        StringBuilder manifest = new StringBuilder(GRANULARITY_KEY + DELIMITER + granularity + "\n");
+        for (Partition partition : partitions.values()) {
+            manifest.append(String.join(DELIMITER, partition.name(), partition.firstDate().toString(),
+                    partition.lastDate().toString(), String.valueOf(partition.rows()),
+                    TransactionCodec.formatCents(partition.depositCents()), TransactionCodec.formatCents(partition.paymentCents()),
+                    String.valueOf(partition.bytes()))).append('\n');
+        }
+
+        Path temporary = directory.resolve(MANIFEST_NAME + ".tmp");
+        Files.writeString(temporary, manifest, StandardCharsets.UTF_8);
+        Files.move(temporary, directory.resolve(MANIFEST_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Splits a single-file ledger into a partitioned directory.
+     * <p>
+     * Usage: {@code migrate [--file transactions.csv] [--to transactions] [--by month|year]}. Rows still
+     * waiting in the write-ahead log of the data file are folded into it first. Afterwards the tracker uses
+     * the partitions when started with {@code -Dtracker.dataFile=<directory>}. An unknown option or an
+     * option without a value prints the usage instead.
+     * </p>
+     *
+     * @param args the command line arguments
+     * @throws IOException if the migration fails
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = "transactions.csv";
+        String directoryName = "transactions";
+        Granularity granularity = Granularity.MONTH;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                printUsage();
+                return;
+            }
+            switch (args[i]) {
+                case "--file" -> fileName = args[i + 1];
+                case "--to" -> directoryName = args[i + 1];
+                case "--by" -> {
+                    try {
+                        granularity = Granularity.valueOf(args[i + 1].trim().toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        printUsage();
+                        return;
+                    }
+                }
+                default -> {
+                    printUsage();
+                    return;
+                }
+            }
+        }
+
+        Path dataFile = Path.of(fileName);
+        WriteAheadLog.recover(dataFile);
+        PartitionedLedger partitioned = migrate(dataFile, Path.of(directoryName), granularity);
+        int rows = partitioned.partitions().stream().mapToInt(Partition::rows).sum();
+        System.out.println("Migrated " + rows + " Transactions From " + fileName + " Into "
+                + partitioned.partitions().size() + " Partitions In " + directoryName);
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: migrate [--file <data file>] [--to <directory>] [--by month|year]");
+    }
+}
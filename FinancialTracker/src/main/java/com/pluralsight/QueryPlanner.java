@@ -0,0 +1,192 @@
+package com.pluralsight;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Turns a {@link RowQuery} into a specialized plan for scanning a {@link Ledger}.
+ * <p>
+ * Criteria that are not set produce no clause at all. Every plan walks the ledger's {@link DateIndex},
+ * so rows come out newest first by date and time, including back-dated rows appended after newer ones,
+ * without sorting any result; while the index is still in row order, rows are read directly instead.
+ * The date criteria narrow the walk to the matching slice of the index, and the text criteria are
+ * resolved once, case-folded, to bitmaps of dictionary ids through the ledger's {@link TrigramIndex}es.
+ * A text criterion that matches no entry makes the whole plan empty without scanning, and one that
+ * matches every entry is dropped.
+ * </p>
+ * <p>
+ * The remaining clauses are chained with short-circuiting and ordered by their rank, the cost of
+ * evaluating a clause divided by the fraction of rows it rejects, so cheap and selective clauses run
+ * first. Primitive amount checks are the cheapest clauses. Selectivity is estimated from the
+ * ledger's {@link Rollups} for amounts and vendors, and from the share of matching dictionary entries
+ * for descriptions.
+ * </p>
+ */
+public class QueryPlanner {
+    private static final double PRIMITIVE_COST = 1;
+    private static final double BITMAP_COST = 2;
+    private static final double NARROWED_BOUND_SELECTIVITY = 0.5;
+
+    /**
+     * Plans a query over a ledger.
+     *
+     * @param ledger the {@link Ledger} to scan
+     * @param query  the {@link RowQuery} to plan
+     * @return the {@link QueryPlan}, from which cursors over the matching rows are created
+     */
+    public static QueryPlan plan(Ledger ledger, RowQuery query) {
+        DateIndex index = ledger.dateIndex();
+        IntUnaryOperator rowAt = index.inRowOrder() ? row -> row : index::row;
+        int from = 0;
+        int to = index.size();
+        String seed = "scan";
+
+        if (query.startDate() != null || query.endDate() != null) {
+            from = (query.startDate() == null) ? 0 : index.firstPositionOnOrAfter(query.startDate().toEpochDay());
+            to = Math.max(from, (query.endDate() == null) ? index.size() : index.firstPositionAfter(query.endDate().toEpochDay()));
+            seed = "date index [" + from + ", " + to + ")";
+        }
+
+        List<Clause> clauses = new ArrayList<>();
+        if (query.minCents() > query.maxCents()) return QueryPlan.empty();
+        if (query.minCents() != Long.MIN_VALUE || query.maxCents() != Long.MAX_VALUE) {
+            long minCents = query.minCents();
+            long maxCents = query.maxCents();
+            clauses.add(new Clause("amount", PRIMITIVE_COST, amountSelectivity(ledger, minCents, maxCents),
+                    row -> {
+                        long cents = ledger.cents(row);
+                        return cents >= minCents && cents <= maxCents;
+                    }));
+        }
+        if (query.description() != null) {
+            BitSet matches = ledger.descriptionSearch().matching(query.description());
+            int entries = ledger.descriptions().size();
+            if (matches.isEmpty()) return QueryPlan.empty();
+            if (matches.cardinality() < entries) {
+                clauses.add(new Clause("description", BITMAP_COST, (double) matches.cardinality() / entries,
+                        row -> matches.get(ledger.descriptionId(row))));
+            }
+        }
+        if (query.vendor() != null) {
+            BitSet matches = ledger.vendorSearch().matching(query.vendor());
+            if (matches.isEmpty()) return QueryPlan.empty();
+            if (matches.cardinality() < ledger.vendors().size()) {
+                clauses.add(new Clause("vendor", BITMAP_COST, vendorSelectivity(ledger, matches),
+                        row -> matches.get(ledger.vendorId(row))));
+            }
+        }
+
+        clauses.sort(Comparator.comparingDouble(Clause::rank));
+        IntPredicate filter = row -> true;
+        StringJoiner description = new StringJoiner(" -> ").add(seed);
+        if (!clauses.isEmpty()) {
+            filter = clauses.get(0).predicate();
+            for (int i = 1; i < clauses.size(); i++) filter = filter.and(clauses.get(i).predicate());
+        }
+        clauses.forEach(clause -> description.add(clause.name()));
+        return new QueryPlan(from, to, rowAt, filter, !clauses.isEmpty(), description.toString());
+    }
+
+    /**
+     * Estimates the share of rows inside an amount range from the deposit and payment counts of the ledger.
+     */
+    private static double amountSelectivity(Ledger ledger, long minCents, long maxCents) {
+        Rollups.Summary totals = ledger.rollups().range(null, null);
+        double deposits = totals.deposits().count();
+        double payments = totals.payments().count();
+        double total = Math.max(1, deposits + payments);
+
+        double selectivity = 1;
+        if (minCents > 0) selectivity = deposits / total;
+        else if (maxCents < 0) selectivity = payments / total;
+
+        // Every bound other than the deposit or payment split itself narrows the estimate further
+        if (minCents != Long.MIN_VALUE && minCents != 1) selectivity *= NARROWED_BOUND_SELECTIVITY;
+        if (maxCents != Long.MAX_VALUE && maxCents != -1) selectivity *= NARROWED_BOUND_SELECTIVITY;
+        return selectivity;
+    }
+
+    /**
+     * Estimates the share of rows belonging to a set of vendors from the per vendor rollups.
+     */
+    private static double vendorSelectivity(Ledger ledger, BitSet vendorIds) {
+        Rollups rollups = ledger.rollups();
+        Rollups.Summary all = rollups.range(null, null);
+        Rollups.Summary matching = rollups.vendors(vendorIds);
+        double total = all.deposits().count() + all.payments().count();
+        if (total == 0) return (double) vendorIds.cardinality() / Math.max(1, ledger.vendors().size());
+        return (matching.deposits().count() + matching.payments().count()) / total;
+    }
+
+    /**
+     * One criterion of a plan, with its estimated evaluation cost and the share of rows it lets through.
+     */
+    private record Clause(String name, double cost, double selectivity, IntPredicate predicate) {
+        double rank() {
+            return cost / Math.max(1e-9, 1 - selectivity);
+        }
+    }
+
+    /**
+     * A planned query: the slice of positions to visit, the mapping from positions to rows and the
+     * chained filter. Each call to {@link #cursor()} starts a new scan, newest row first.
+     * <p>
+     * Filtered plans can be scanned on the fork-join pool, see {@link ScanMode}. A parallel scan tests
+     * every position up front and returns a cursor over the matching positions only, which costs more
+     * for the first page of a large result but spreads the filtering of the whole range over all cores.
+     * </p>
+     *
+     * @param from        the lowest position visited (inclusive)
+     * @param to          the highest position visited (exclusive)
+     * @param rowAt       maps a position to its row number
+     * @param filter      the chained clauses
+     * @param filtered    whether the plan has any clause, so that its filter can reject rows
+     * @param description a readable description of the plan, such as {@code date index [0, 40) -> amount -> vendor}
+     */
+    public record QueryPlan(int from, int to, IntUnaryOperator rowAt, IntPredicate filter, boolean filtered,
+                            String description) {
+        static QueryPlan empty() {
+            return new QueryPlan(0, 0, row -> row, row -> false, false, "empty");
+        }
+
+        /**
+         * Starts a scan in the mode configured by {@link TrackerConfig#SCAN_MODE}.
+         *
+         * @return a {@link RowCursor} over the matching rows, newest first
+         */
+        public RowCursor cursor() {
+            return cursor(TrackerConfig.SCAN_MODE);
+        }
+
+        /**
+         * Starts a scan in the given mode. Plans without clauses are always scanned sequentially, as
+         * every visited position matches.
+         *
+         * @param mode the {@link ScanMode} of the scan
+         * @return a {@link RowCursor} over the matching rows, newest first
+         */
+        public RowCursor cursor(ScanMode mode) {
+            boolean parallel = switch (mode) {
+                case SEQUENTIAL -> false;
+                case PARALLEL -> filtered;
+                case AUTO -> filtered && to - from >= TrackerConfig.SCAN_PARALLEL_THRESHOLD
+                        && ForkJoinPool.getCommonPoolParallelism() > 1;
+            };
+            if (!parallel) return new RowCursor(from, to, rowAt, filter);
+
+            int[] positions = ParallelScan.matchingPositions(from, to, rowAt, filter, TrackerConfig.SCAN_SPLIT_SIZE);
+            return new RowCursor(0, positions.length, index -> rowAt.applyAsInt(positions[index]), row -> true);
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
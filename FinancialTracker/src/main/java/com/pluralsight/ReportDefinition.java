@@ -0,0 +1,81 @@
+package com.pluralsight;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * A named report of a {@link BatchReport}: the {@link RowQuery} selecting its rows.
+ * <p>
+ * The factories build the standard reports of the reports menu relative to a given day, so a
+ * nightly job can pass the date it reports on. Definitions are parsed from the command line with
+ * {@link #parse(String, LocalDate)}.
+ * </p>
+ *
+ * @param name  the name of the report, also used as its file name
+ * @param query the {@link RowQuery} selecting the rows of the report
+ */
+public record ReportDefinition(String name, RowQuery query) {
+    public static ReportDefinition all() {
+        return new ReportDefinition("all", RowQuery.ALL);
+    }
+
+    public static ReportDefinition deposits() {
+        return new ReportDefinition("deposits", RowQuery.ALL.ofType(true));
+    }
+
+    public static ReportDefinition payments() {
+        return new ReportDefinition("payments", RowQuery.ALL.ofType(false));
+    }
+
+    public static ReportDefinition monthToDate(LocalDate today) {
+        return new ReportDefinition("month-to-date", RowQuery.ALL.between(today.withDayOfMonth(1), today));
+    }
+
+    public static ReportDefinition previousMonth(LocalDate today) {
+        LocalDate start = today.minusMonths(1).withDayOfMonth(1);
+        return new ReportDefinition("previous-month", RowQuery.ALL.between(start, start.withDayOfMonth(start.lengthOfMonth())));
+    }
+
+    public static ReportDefinition yearToDate(LocalDate today) {
+        return new ReportDefinition("year-to-date", RowQuery.ALL.between(today.withDayOfYear(1), today));
+    }
+
+    public static ReportDefinition previousYear(LocalDate today) {
+        LocalDate start = today.minusYears(1).withDayOfYear(1);
+        return new ReportDefinition("previous-year", RowQuery.ALL.between(start, start.withMonth(12).withDayOfMonth(31)));
+    }
+
+    public static ReportDefinition vendor(String vendor) {
+        return new ReportDefinition("vendor-" + vendor.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-"),
+                RowQuery.ALL.fromVendor(vendor.trim()));
+    }
+
+    /**
+     * Parses a report definition from its command line form.
+     * <p>
+     * Accepted forms are {@code all}, {@code deposits}, {@code payments}, {@code month-to-date},
+     * {@code previous-month}, {@code year-to-date}, {@code previous-year} and {@code vendor=<text>}.
+     * </p>
+     *
+     * @param spec  the command line form of the report
+     * @param today the day the period reports are relative to
+     * @return the parsed {@link ReportDefinition}
+     * @throws IllegalArgumentException if the form is not recognized
+     */
+    public static ReportDefinition parse(String spec, LocalDate today) {
+        String trimmed = spec.trim();
+        if (trimmed.regionMatches(true, 0, "vendor=", 0, 7) && trimmed.length() > 7) {
+            return vendor(trimmed.substring(7));
+        }
+        return switch (trimmed.toLowerCase(Locale.ROOT)) {
+            case "all" -> all();
+            case "deposits" -> deposits();
+            case "payments" -> payments();
+            case "month-to-date" -> monthToDate(today);
+            case "previous-month" -> previousMonth(today);
+            case "year-to-date" -> yearToDate(today);
+            case "previous-year" -> previousYear(today);
+            default -> throw new IllegalArgumentException("Unknown report '" + spec + "'");
+        };
+    }
+}
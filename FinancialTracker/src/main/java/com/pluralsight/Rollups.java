@@ -0,0 +1,393 @@
+package com.pluralsight;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Incrementally maintained totals of a {@link Ledger}, used to summarize reports without scanning rows.
+ * <p>
+ * Every row is added to daily, monthly and yearly aggregates, to an all-time aggregate per vendor and
+ * to a monthly aggregate per vendor. Each aggregate keeps the count, sum, minimum and maximum of the
+ * amounts in cents, separately for deposits (positive amounts) and payments (negative amounts), the
+ * same split the type filters use. Adding a row costs a constant number of hash table updates.
+ * </p>
+ * <p>
+ * A date range is summarized by covering it with as few periods as possible: whole years where the
+ * range spans them, whole months next to those, and single days at the edges, so even a range of
+ * many years costs only a few dozen lookups.
+ * </p>
+ * <p>
+ * A {@link #snapshot(Ledger)} shares the tables with the rollups and only copies their block
+ * directories. A block is copied when a row is first added to it after the snapshot, so a snapshot
+ * costs a few hundred references, not the size of the tables.
+ * </p>
+ */
+public class Rollups {
+    private final Ledger ledger;
+    private final AggregateTable days = new AggregateTable();
+    private final AggregateTable months = new AggregateTable();
+    private final AggregateTable years = new AggregateTable();
+    private final AggregateTable vendors = new AggregateTable();
+    private final AggregateTable vendorMonths = new AggregateTable();
+    private int firstEpochDay = Integer.MAX_VALUE;
+    private int lastEpochDay = Integer.MIN_VALUE;
+    private int cachedEpochDay = Integer.MIN_VALUE;
+    private long cachedMonth;
+    private long cachedYear;
+
+    public Rollups(Ledger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Creates a read-only copy of the rollups for a snapshot of their ledger, sharing the blocks of every table.
+     *
+     * @param owner the snapshot ledger the copy belongs to
+     * @return the copy of the rollups
+     */
+    Rollups snapshot(Ledger owner) {
+        Rollups copy = new Rollups(owner);
+        days.snapshotTo(copy.days);
+        months.snapshotTo(copy.months);
+        years.snapshotTo(copy.years);
+        vendors.snapshotTo(copy.vendors);
+        vendorMonths.snapshotTo(copy.vendorMonths);
+        copy.firstEpochDay = firstEpochDay;
+        copy.lastEpochDay = lastEpochDay;
+        return copy;
+    }
+
+    /**
+     * Adds a newly appended row to every aggregate it belongs to.
+     *
+     * @param row the row number of the appended transaction
+     */
+    public void add(int row) {
+        int epochDay = ledger.epochDay(row);
+        long cents = ledger.cents(row);
+        if (epochDay != cachedEpochDay) {
+            // Rows mostly arrive in date order, so the civil date is usually the one of the previous row
+            long civilDate = TransactionCodec.civilDate(epochDay);
+            cachedEpochDay = epochDay;
+            cachedYear = Math.floorDiv(civilDate, 10_000);
+            cachedMonth = cachedYear * 12 + Math.floorMod(civilDate, 10_000) / 100 - 1;
+        }
+        firstEpochDay = Math.min(firstEpochDay, epochDay);
+        lastEpochDay = Math.max(lastEpochDay, epochDay);
+
+        int vendorId = ledger.vendorId(row);
+        days.add(epochDay, cents);
+        months.add(cachedMonth, cents);
+        years.add(cachedYear, cents);
+        vendors.add(vendorId, cents);
+        vendorMonths.add((cachedMonth << 32) | vendorId, cents);
+    }
+
+    public void clear() {
+        days.clear();
+        months.clear();
+        years.clear();
+        vendors.clear();
+        vendorMonths.clear();
+        firstEpochDay = Integer.MAX_VALUE;
+        lastEpochDay = Integer.MIN_VALUE;
+        cachedEpochDay = Integer.MIN_VALUE;
+    }
+
+    public Summary day(LocalDate date) {
+        return days.get(date.toEpochDay());
+    }
+
+    public Summary month(YearMonth month) {
+        return months.get(monthKey(month));
+    }
+
+    public Summary year(int year) {
+        return years.get(year);
+    }
+
+    public Summary vendor(int vendorId) {
+        return vendors.get(vendorId);
+    }
+
+    public Summary vendorMonth(int vendorId, YearMonth month) {
+        return vendorMonths.get((monthKey(month) << 32) | vendorId);
+    }
+
+    /**
+     * Summarizes every vendor whose id is set in a bitmap, such as the result of a vendor search.
+     *
+     * @param vendorIds a bitmap of vendor ids
+     * @return the combined totals of the vendors
+     */
+    public Summary vendors(BitSet vendorIds) {
+        Summary summary = Summary.EMPTY;
+        for (int id = vendorIds.nextSetBit(0); id >= 0; id = vendorIds.nextSetBit(id + 1)) {
+            summary = summary.plus(vendors.get(id));
+        }
+        return summary;
+    }
+
+    /**
+     * Summarizes every transaction within a date range.
+     *
+     * @param startDate the start date of the range (inclusive), or {@code null} for no lower bound
+     * @param endDate   the end date of the range (inclusive), or {@code null} for no upper bound
+     * @return the totals of the range
+     */
+    public Summary range(LocalDate startDate, LocalDate endDate) {
+        if (firstEpochDay > lastEpochDay) return Summary.EMPTY;
+
+        long first = Math.max(firstEpochDay, (startDate == null) ? Long.MIN_VALUE : startDate.toEpochDay());
+        long last = Math.min(lastEpochDay, (endDate == null) ? Long.MAX_VALUE : endDate.toEpochDay());
+        if (first > last) return Summary.EMPTY;
+
+        LocalDate end = LocalDate.ofEpochDay(last);
+        LocalDate date = LocalDate.ofEpochDay(first);
+        Summary summary = Summary.EMPTY;
+        while (!date.isAfter(end)) {
+            if (date.getDayOfYear() == 1 && !date.plusYears(1).isAfter(end.plusDays(1))) {
+                summary = summary.plus(years.get(date.getYear()));
+                date = date.plusYears(1);
+            } else if (date.getDayOfMonth() == 1 && !date.plusMonths(1).isAfter(end.plusDays(1))) {
+                summary = summary.plus(months.get(monthKey(YearMonth.from(date))));
+                date = date.plusMonths(1);
+            } else {
+                summary = summary.plus(days.get(date.toEpochDay()));
+                date = date.plusDays(1);
+            }
+        }
+        return summary;
+    }
+
+    private static long monthKey(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Count, sum, minimum and maximum of a set of amounts, in cents.
+     *
+     * @param count    the number of amounts
+     * @param sumCents the sum of the amounts
+     * @param minCents the smallest amount, or {@code 0} if there are none
+     * @param maxCents the largest amount, or {@code 0} if there are none
+     */
+    public record Aggregate(long count, long sumCents, long minCents, long maxCents) {
+        public static final Aggregate EMPTY = new Aggregate(0, 0, 0, 0);
+
+        public Aggregate plus(Aggregate other) {
+            if (other.count == 0) return this;
+            if (count == 0) return other;
+            return new Aggregate(count + other.count, sumCents + other.sumCents,
+                    Math.min(minCents, other.minCents), Math.max(maxCents, other.maxCents));
+        }
+    }
+
+    /**
+     * Deposit and payment aggregates of a period or vendor.
+     *
+     * @param deposits the aggregate of the positive amounts
+     * @param payments the aggregate of the negative amounts
+     */
+    public record Summary(Aggregate deposits, Aggregate payments) {
+        public static final Summary EMPTY = new Summary(Aggregate.EMPTY, Aggregate.EMPTY);
+
+        public Summary plus(Summary other) {
+            return new Summary(deposits.plus(other.deposits), payments.plus(other.payments));
+        }
+
+        public long netCents() {
+            return deposits.sumCents + payments.sumCents;
+        }
+    }
+
+    /**
+     * Open-addressing table from a long key to deposit and payment aggregates, stored in parallel
+     * primitive arrays so adding an amount never allocates.
+     * <p>
+     * The slots are split into blocks of {@value #BLOCK_SLOTS}. A snapshot copies only the array of
+     * blocks and shares the blocks themselves, and the table copies a shared block before its first
+     * change, as the {@link DateIndex} does with its chunks.
+     * </p>
+     */
+    private static class AggregateTable {
+        private static final int DEPOSITS = 0;
+        private static final int PAYMENTS = 1;
+        private static final int BLOCK_SHIFT = 8;
+        private static final int BLOCK_SLOTS = 1 << BLOCK_SHIFT;
+        private static final int INITIAL_CAPACITY = 16;
+
+        private Block[] blocks;
+        private boolean[] sharedBlocks;
+        private int capacity;
+        private int size;
+        private long lastKey;
+        private int lastSlot = -1;
+
+        AggregateTable() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        void add(long key, long cents) {
+            if (cents == 0) return;
+
+            int slot = (lastSlot >= 0 && lastKey == key) ? lastSlot : slotFor(key);
+            lastKey = key;
+            lastSlot = slot;
+
+            Block block = writableBlock(slot);
+            int entry = (slot & (BLOCK_SLOTS - 1)) * 2 + (cents > 0 ? DEPOSITS : PAYMENTS);
+            if (block.counts[entry] == 0) {
+                block.mins[entry] = cents;
+                block.maxs[entry] = cents;
+            } else {
+                block.mins[entry] = Math.min(block.mins[entry], cents);
+                block.maxs[entry] = Math.max(block.maxs[entry], cents);
+            }
+            block.counts[entry]++;
+            block.sums[entry] += cents;
+        }
+
+        Summary get(long key) {
+            int slot = find(key);
+            if (slot < 0) return Summary.EMPTY;
+            Block block = blocks[slot >>> BLOCK_SHIFT];
+            int entry = (slot & (BLOCK_SLOTS - 1)) * 2;
+            return new Summary(block.aggregate(entry + DEPOSITS), block.aggregate(entry + PAYMENTS));
+        }
+
+        /**
+         * Makes another table a read-only view of this one, sharing every block.
+         */
+        void snapshotTo(AggregateTable snapshot) {
+            snapshot.blocks = blocks.clone();
+            snapshot.sharedBlocks = new boolean[blocks.length];
+            Arrays.fill(snapshot.sharedBlocks, true);
+            snapshot.capacity = capacity;
+            snapshot.size = size;
+            Arrays.fill(sharedBlocks, true);
+        }
+
+        void clear() {
+            // Snapshots may share the blocks, so they are replaced rather than emptied
+            allocate(INITIAL_CAPACITY);
+            size = 0;
+            lastSlot = -1;
+        }
+
+        private void allocate(int newCapacity) {
+            capacity = newCapacity;
+            int blockSlots = Math.min(newCapacity, BLOCK_SLOTS);
+            blocks = new Block[newCapacity / blockSlots];
+            for (int i = 0; i < blocks.length; i++) blocks[i] = new Block(blockSlots);
+            sharedBlocks = new boolean[blocks.length];
+        }
+
+        private Block writableBlock(int slot) {
+            int index = slot >>> BLOCK_SHIFT;
+            if (sharedBlocks[index]) {
+                blocks[index] = blocks[index].copy();
+                sharedBlocks[index] = false;
+            }
+            return blocks[index];
+        }
+
+        private int find(long key) {
+            int mask = capacity - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                Block block = blocks[slot >>> BLOCK_SHIFT];
+                int offset = slot & (BLOCK_SLOTS - 1);
+                if (!block.used[offset]) return -1;
+                if (block.keys[offset] == key) return slot;
+            }
+        }
+
+        /**
+         * Returns the slot of a key, inserting it if needed. Growing the table invalidates cached slots.
+         */
+        private int slotFor(long key) {
+            int slot = find(key);
+            if (slot >= 0) return slot;
+
+            if ((size + 1) * 2 > capacity) grow();
+            slot = freeSlot(key);
+            Block block = writableBlock(slot);
+            block.used[slot & (BLOCK_SLOTS - 1)] = true;
+            block.keys[slot & (BLOCK_SLOTS - 1)] = key;
+            size++;
+            return slot;
+        }
+
+        private int freeSlot(long key) {
+            int mask = capacity - 1;
+            int slot = hash(key) & mask;
+            while (blocks[slot >>> BLOCK_SHIFT].used[slot & (BLOCK_SLOTS - 1)]) slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void grow() {
+            Block[] oldBlocks = blocks;
+            allocate(capacity * 2);
+            lastSlot = -1;
+
+            for (Block oldBlock : oldBlocks) {
+                for (int offset = 0; offset < oldBlock.keys.length; offset++) {
+                    if (!oldBlock.used[offset]) continue;
+                    int slot = freeSlot(oldBlock.keys[offset]);
+                    Block block = blocks[slot >>> BLOCK_SHIFT];
+                    int newOffset = slot & (BLOCK_SLOTS - 1);
+                    block.used[newOffset] = true;
+                    block.keys[newOffset] = oldBlock.keys[offset];
+                    for (int kind = 0; kind < 2; kind++) {
+                        block.counts[newOffset * 2 + kind] = oldBlock.counts[offset * 2 + kind];
+                        block.sums[newOffset * 2 + kind] = oldBlock.sums[offset * 2 + kind];
+                        block.mins[newOffset * 2 + kind] = oldBlock.mins[offset * 2 + kind];
+                        block.maxs[newOffset * 2 + kind] = oldBlock.maxs[offset * 2 + kind];
+                    }
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+
+    /**
+     * The keys and aggregates of a run of consecutive slots, two aggregate entries per slot.
+     */
+    private static class Block {
+        private final long[] keys;
+        private final boolean[] used;
+        private final long[] counts;
+        private final long[] sums;
+        private final long[] mins;
+        private final long[] maxs;
+
+        Block(int slots) {
+            this(new long[slots], new boolean[slots], new long[slots * 2], new long[slots * 2], new long[slots * 2],
+                    new long[slots * 2]);
+        }
+
+        private Block(long[] keys, boolean[] used, long[] counts, long[] sums, long[] mins, long[] maxs) {
+            this.keys = keys;
+            this.used = used;
+            this.counts = counts;
+            this.sums = sums;
+            this.mins = mins;
+            this.maxs = maxs;
+        }
+
+        Block copy() {
+            return new Block(keys.clone(), used.clone(), counts.clone(), sums.clone(), mins.clone(), maxs.clone());
+        }
+
+        Aggregate aggregate(int entry) {
+            return counts[entry] == 0 ? Aggregate.EMPTY
+                    : new Aggregate(counts[entry], sums[entry], mins[entry], maxs[entry]);
+        }
+    }
+}
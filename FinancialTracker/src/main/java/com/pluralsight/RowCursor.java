@@ -0,0 +1,78 @@
+package com.pluralsight;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Lazy, newest-first iteration over the rows of a {@link Ledger} that match a filter.
+ * <p>
+ * The cursor walks a range of positions from the top down, mapping each position to a row number,
+ * for example through the identity for file order or through a {@link DateIndex} for date order.
+ * Rows are only tested against the filter as they are requested, so producing the first page of a
+ * report costs the same regardless of how many rows match in total.
+ * </p>
+ * <p>
+ * The current position can be saved with {@link #position()} and restored with {@link #seek(int)},
+ * which lets a pager return to the start of a previous page without scanning from the top again.
+ * </p>
+ */
+public class RowCursor {
+    private final int from;
+    private final IntUnaryOperator rowAt;
+    private final IntPredicate filter;
+    private int position;
+
+    /**
+     * Creates a cursor over the positions {@code [from, to)}, visited from {@code to - 1} down to {@code from}.
+     *
+     * @param from   the lowest position visited (inclusive)
+     * @param to     the highest position visited (exclusive)
+     * @param rowAt  maps a position to its row number
+     * @param filter an {@link IntPredicate} over row numbers
+     */
+    public RowCursor(int from, int to, IntUnaryOperator rowAt, IntPredicate filter) {
+        this.from = from;
+        this.rowAt = rowAt;
+        this.filter = filter;
+        this.position = to - 1;
+    }
+
+    /**
+     * Moves the cursor to the next matching row without consuming it.
+     *
+     * @return whether another matching row exists
+     */
+    public boolean hasNext() {
+        while (position >= from && !filter.test(rowAt.applyAsInt(position))) position--;
+        return position >= from;
+    }
+
+    /**
+     * Returns the next matching row and moves past it.
+     *
+     * @return the row number of the next matching row, or {@code -1} if there is none
+     */
+    public int next() {
+        return hasNext() ? rowAt.applyAsInt(position--) : -1;
+    }
+
+    /**
+     * Fills an array with the next matching rows.
+     *
+     * @param rows the array receiving the row numbers
+     * @return the number of rows written, less than the array length only when the cursor is exhausted
+     */
+    public int next(int[] rows) {
+        int count = 0;
+        while (count < rows.length && hasNext()) rows[count++] = rowAt.applyAsInt(position--);
+        return count;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public void seek(int position) {
+        this.position = position;
+    }
+}
@@ -0,0 +1,234 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static com.pluralsight.InputValidator.DATE_FORMATTER;
+
+/**
+ * Precompiled formatter for the rows of a transaction table.
+ * <p>
+ * The fixed parts of a row, the borders, column separators and color codes around every cell, are
+ * assembled once when the formatter is created, for each alternating row color. Formatting a row then
+ * only copies those parts and the cell values into a reusable character buffer: dates and times are
+ * written digit by digit from the ledger columns, text cells are truncated and padded in place, and
+ * amounts are written as fixed-point values straight from their cents, so no strings are created per row.
+ * </p>
+ * <p>
+ * The output is identical to formatting the row with {@link String#format} using the same column widths.
+ * A formatter keeps its buffer between rows and is not thread-safe.
+ * </p>
+ */
+public class RowFormatter {
+    private static final String TRUNCATION_STRING = "...";
+
+    private final int dateWidth;
+    private final int timeWidth;
+    private final int descriptionWidth;
+    private final int vendorWidth;
+    private final int amountWidth;
+    private final char[][] rowStarts;
+    private final char[][] afterDates;
+    private final char[][] afterTimes;
+    private final char[][] afterTexts;
+    private final char[][] afterVendors;
+    private final char[] positiveColor;
+    private final char[] negativeColor;
+    private final char[] rowEnd;
+    private final char[] amountDigits = new char[20];
+    private char[] buffer = new char[256];
+    private int length;
+
+    /**
+     * Builds a formatter for the given column widths and colors.
+     *
+     * @param dateWidth        the width of the date column
+     * @param timeWidth        the width of the time column
+     * @param descriptionWidth the width of the description column
+     * @param vendorWidth      the width of the vendor column
+     * @param amountWidth      the width of the amount column
+     * @param border           the string written at the start and end of every row
+     * @param columnSeparator  the string written between columns
+     * @param rowColors        the background colors of alternating rows, starting with the first row
+     * @param positiveColor    the color of positive and zero amounts
+     * @param negativeColor    the color of negative amounts
+     */
+    public RowFormatter(int dateWidth, int timeWidth, int descriptionWidth, int vendorWidth, int amountWidth,
+                        String border, String columnSeparator, String[] rowColors, String positiveColor,
+                        String negativeColor) {
+        this.dateWidth = dateWidth;
+        this.timeWidth = timeWidth;
+        this.descriptionWidth = descriptionWidth;
+        this.vendorWidth = vendorWidth;
+        this.amountWidth = amountWidth;
+        this.positiveColor = positiveColor.toCharArray();
+        this.negativeColor = negativeColor.toCharArray();
+        this.rowEnd = (" " + border + System.lineSeparator()).toCharArray();
+
+        int colorCount = rowColors.length;
+        rowStarts = new char[colorCount][];
+        afterDates = new char[colorCount][];
+        afterTimes = new char[colorCount][];
+        afterTexts = new char[colorCount][];
+        afterVendors = new char[colorCount][];
+        for (int i = 0; i < colorCount; i++) {
+            String color = rowColors[i];
+            rowStarts[i] = (border + color + " ").toCharArray();
+            afterDates[i] = (" " + columnSeparator + color + " ").toCharArray();
+            afterTimes[i] = (columnSeparator + color + " ").toCharArray();
+            afterTexts[i] = (" " + columnSeparator + color + " ").toCharArray();
+            afterVendors[i] = (" " + columnSeparator + color + " ").toCharArray();
+        }
+    }
+
+    /**
+     * Formats one row of a ledger into the buffer, replacing the previous row.
+     *
+     * @param ledger the {@link Ledger} holding the row
+     * @param row    the row number
+     * @param index  the position of the row in the table, which selects its background color
+     * @return this formatter, for chaining
+     */
+    public RowFormatter format(Ledger ledger, int row, int index) {
+        int color = index % rowStarts.length;
+        long cents = ledger.cents(row);
+        length = 0;
+
+        append(rowStarts[color]);
+        appendDate(ledger.epochDay(row));
+        pad(dateWidth - 10);
+        append(afterDates[color]);
+        appendTime(ledger.secondOfDay(row));
+        pad(timeWidth - 8);
+        append(afterTimes[color]);
+        appendText(ledger.descriptions().get(ledger.descriptionId(row)), descriptionWidth);
+        append(afterTexts[color]);
+        appendText(ledger.vendors().get(ledger.vendorId(row)), vendorWidth);
+        append(afterVendors[color]);
+        append(cents < 0 ? negativeColor : positiveColor);
+        appendAmount(cents);
+        append(rowEnd);
+        return this;
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Writes an epoch day as {@code yyyy-MM-dd}, converting it to a civil date without creating a
+     * {@link LocalDate}. Years outside the four digit range are left to the date formatter.
+     */
+    private void appendDate(int epochDay) {
+        long civilDate = TransactionCodec.civilDate(epochDay);
+        long year = Math.floorDiv(civilDate, 10_000);
+        int monthDay = Math.floorMod(civilDate, 10_000);
+        int month = monthDay / 100;
+        int day = monthDay % 100;
+
+        if (year < 1 || year > 9999) {
+            append(LocalDate.ofEpochDay(epochDay).format(DATE_FORMATTER).toCharArray());
+            return;
+        }
+        ensureCapacity(10);
+        appendDigits((int) year, 4);
+        buffer[length++] = '-';
+        appendDigits(month, 2);
+        buffer[length++] = '-';
+        appendDigits(day, 2);
+    }
+
+    private void appendTime(int secondOfDay) {
+        ensureCapacity(8);
+        appendDigits(secondOfDay / 3600, 2);
+        buffer[length++] = ':';
+        appendDigits(secondOfDay / 60 % 60, 2);
+        buffer[length++] = ':';
+        appendDigits(secondOfDay % 60, 2);
+    }
+
+    /**
+     * Writes a text cell left-aligned in its column, ending it with an ellipsis if it does not fit.
+     */
+    private void appendText(String value, int width) {
+        ensureCapacity(Math.max(width, value.length()));
+        if (value.length() > width) {
+            int kept = width - TRUNCATION_STRING.length();
+            value.getChars(0, kept, buffer, length);
+            length += kept;
+            TRUNCATION_STRING.getChars(0, TRUNCATION_STRING.length(), buffer, length);
+            length += TRUNCATION_STRING.length();
+            return;
+        }
+        value.getChars(0, value.length(), buffer, length);
+        length += value.length();
+        pad(width - value.length());
+    }
+
+    /**
+     * Writes an amount right-aligned in its column as a fixed-point value with two decimals,
+     * ending it with an ellipsis if it does not fit.
+     */
+    private void appendAmount(long cents) {
+        int start = amountDigits.length;
+        long magnitude = Math.abs(cents);    // Long.MIN_VALUE stays negative, handled by the unsigned digit loop
+        for (int i = 0; i < 2; i++) {
+            amountDigits[--start] = (char) ('0' + Long.remainderUnsigned(magnitude, 10));
+            magnitude = Long.divideUnsigned(magnitude, 10);
+        }
+        amountDigits[--start] = '.';
+        do {
+            amountDigits[--start] = (char) ('0' + Long.remainderUnsigned(magnitude, 10));
+            magnitude = Long.divideUnsigned(magnitude, 10);
+        } while (magnitude != 0);
+        if (cents < 0) amountDigits[--start] = '-';
+
+        int digitCount = amountDigits.length - start;
+        ensureCapacity(Math.max(amountWidth, digitCount));
+        if (digitCount > amountWidth) {
+            int kept = amountWidth - TRUNCATION_STRING.length();
+            System.arraycopy(amountDigits, start, buffer, length, kept);
+            length += kept;
+            TRUNCATION_STRING.getChars(0, TRUNCATION_STRING.length(), buffer, length);
+            length += TRUNCATION_STRING.length();
+            return;
+        }
+        pad(amountWidth - digitCount);
+        System.arraycopy(amountDigits, start, buffer, length, digitCount);
+        length += digitCount;
+    }
+
+    private void appendDigits(int value, int digitCount) {
+        for (int i = length + digitCount - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digitCount;
+    }
+
+    private void append(char[] chars) {
+        ensureCapacity(chars.length);
+        System.arraycopy(chars, 0, buffer, length, chars.length);
+        length += chars.length;
+    }
+
+    private void pad(int count) {
+        if (count <= 0) return;
+        ensureCapacity(count);
+        Arrays.fill(buffer, length, length + count, ' ');
+        length += count;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(length + extra, buffer.length * 2));
+        }
+    }
+}
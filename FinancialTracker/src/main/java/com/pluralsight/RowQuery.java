@@ -0,0 +1,47 @@
+package com.pluralsight;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria of a search over the rows of a {@link Ledger}, as planned by {@link QueryPlanner}.
+ * <p>
+ * Every criterion is optional: dates and text are ignored when {@code null}, and the amount range
+ * is unbounded at {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE}. Queries are built from
+ * {@link #ALL} by narrowing one criterion at a time.
+ * </p>
+ *
+ * @param startDate   the start date (inclusive), or {@code null} to ignore
+ * @param endDate     the end date (inclusive), or {@code null} to ignore
+ * @param description the description substring (case-insensitive), or {@code null} to ignore
+ * @param vendor      the vendor substring (case-insensitive), or {@code null} to ignore
+ * @param minCents    the smallest matching amount in cents (inclusive)
+ * @param maxCents    the largest matching amount in cents (inclusive)
+ */
+public record RowQuery(LocalDate startDate, LocalDate endDate, String description, String vendor,
+                       long minCents, long maxCents) {
+    /** The query matching every row. */
+    public static final RowQuery ALL = new RowQuery(null, null, null, null, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    public RowQuery between(LocalDate startDate, LocalDate endDate) {
+        return new RowQuery(startDate, endDate, description, vendor, minCents, maxCents);
+    }
+
+    public RowQuery describedBy(String description) {
+        return new RowQuery(startDate, endDate, description, vendor, minCents, maxCents);
+    }
+
+    public RowQuery fromVendor(String vendor) {
+        return new RowQuery(startDate, endDate, description, vendor, minCents, maxCents);
+    }
+
+    public RowQuery amountBetween(long minCents, long maxCents) {
+        return new RowQuery(startDate, endDate, description, vendor, minCents, maxCents);
+    }
+
+    /**
+     * Narrows the query to deposits (positive amounts) or payments (negative amounts).
+     */
+    public RowQuery ofType(boolean isDeposit) {
+        return isDeposit ? amountBetween(Math.max(minCents, 1), maxCents) : amountBetween(minCents, Math.min(maxCents, -1));
+    }
+}
@@ -0,0 +1,16 @@
+package com.pluralsight;
+
+/**
+ * Determines how a {@link QueryPlanner.QueryPlan} scans the ledger for matching rows.
+ */
+public enum ScanMode {
+    /** Rows are tested lazily on the calling thread as the cursor is read. */
+    SEQUENTIAL,
+    /** The scanned range is split and tested on the fork-join pool before the cursor is returned. */
+    PARALLEL,
+    /**
+     * Ranges of at least {@link TrackerConfig#SCAN_PARALLEL_THRESHOLD} positions are scanned in parallel
+     * when the fork-join pool has more than one worker, everything else sequentially.
+     */
+    AUTO
+}
@@ -0,0 +1,131 @@
+package com.pluralsight;
+
+import java.util.Arrays;
+
+/**
+ * Append-only dictionary that maps each distinct string to a dense integer id.
+ * <p>
+ * Ids are assigned in insertion order starting at zero and never change, so they can be stored
+ * in primitive columns in place of the strings themselves. Lookups use an open-addressing hash
+ * table of ids, which avoids boxing and keeps one canonical instance of every value.
+ * </p>
+ * <p>
+ * Because entries never change once added, a {@link #snapshot()} shares the arrays of the dictionary
+ * and only records its size. The dictionary writes new entries past that size, or into new arrays when
+ * it grows, and the snapshot ignores every id it does not know.
+ * </p>
+ */
+public class StringDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT = -1;
+
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] table = newTable(INITIAL_CAPACITY * 2);
+    private int size;
+    private final boolean readOnly;
+
+    public StringDictionary() {
+        readOnly = false;
+    }
+
+    private StringDictionary(StringDictionary source) {
+        values = source.values;
+        hashes = source.hashes;
+        table = source.table;
+        size = source.size;
+        readOnly = true;
+    }
+
+    /**
+     * Returns the id of the specified value, adding it to the dictionary if it is not present yet.
+     *
+     * @param value the string to look up
+     * @return the id assigned to the value
+     */
+    public int intern(String value) {
+        if (readOnly) throw new UnsupportedOperationException("Dictionary snapshots are read-only");
+        int hash = value.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY_SLOT) {
+                return add(value, hash, slot);
+            }
+            if (hashes[id] == hash && values[id].equals(value)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the specified value without adding it.
+     *
+     * @param value the string to look up
+     * @return the id of the value, or {@code -1} if the value is not in the dictionary
+     */
+    public int find(String value) {
+        int hash = value.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY_SLOT) return -1;
+            // Ids past the size were added to the shared table after this snapshot was taken
+            if (id < size && hashes[id] == hash && values[id].equals(value)) return id;
+        }
+    }
+
+    /**
+     * Creates a read-only view of the dictionary as it is now, with the same ids, which later
+     * additions to the dictionary do not affect. The view may be read while the dictionary grows.
+     *
+     * @return the snapshot
+     */
+    public StringDictionary snapshot() {
+        return new StringDictionary(this);
+    }
+
+    public String get(int id) {
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String value, int hash, int slot) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        values[id] = value;
+        hashes[id] = hash;
+        table[slot] = id;
+
+        // Keep the table at most half full so probe sequences stay short
+        if (size * 2 > table.length) rehash(table.length * 2);
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = newTable(capacity);
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (newTable[slot] != EMPTY_SLOT) slot = (slot + 1) & mask;
+            newTable[slot] = id;
+        }
+        table = newTable;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] newTable = new int[capacity];
+        Arrays.fill(newTable, EMPTY_SLOT);
+        return newTable;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
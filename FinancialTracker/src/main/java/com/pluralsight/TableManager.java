@@ -1,11 +1,13 @@
 package com.pluralsight;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Predicate;
-
-import static com.pluralsight.InputValidator.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Scanner;
 
 public class TableManager {
     private static final int DATE_WIDTH = 10;
@@ -24,78 +26,98 @@ public class TableManager {
     private static final String BORDER_STRING = String.format(HEADER_COLOR+" "+RESET_COLOR);
     private static final String COLUMN_SEPARATOR = String.format(SEPARATOR_COLOR + " " + RESET_COLOR);
     private static final String TABLE_TITLE = "\n\t\t\t\t\t\t\t\t\t\t\t\t\t\t";
-    private static final String TRUNCATION_STRING = "...";
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
 
     /**
-     * Displays the full ledger of transactions in a formatted table.
+     * Displays the full ledger of transactions in a formatted, paginated table.
+     * <p>
+     * The method passes a {@link RowCursor} over every row of the ledger, newest date and time first,
+     * walking the ledger's {@link DateIndex} so back-dated transactions appear at their date, to
+     * {@link #displayPages(Scanner, Ledger, RowCursor, String, String, LatencyHistogram)}, which streams the table to the
+     * console one page at a time. This provides a clear view of all transactions in the ledger.
+     * </p>
      * <p>
-     * The method calls {@link #formattedTableDisplay(ArrayList)} to generate a string representation
-     * of the transactions and prints it to the console. This provides a clear view of all
-     * transactions in the ledger.
+     * Like every table, it is drawn from a snapshot of the store taken when the table is opened, so
+     * paging through it never holds up transactions being added, and those do not shift its pages.
      * </p>
      *
-     * @param transactions an {@link ArrayList} of {@link Transaction} objects to be displayed
+     * @param scanner a {@link Scanner} instance for reading page navigation input
+     * @param store the {@link LedgerStore} of transactions to be displayed
      */
-    public static void displayFullLedger(ArrayList<Transaction> transactions) {
-        System.out.println(TABLE_TITLE+"FULL LEDGER TABLE");
-        System.out.println(formattedTableDisplay(transactions));
+    public static void displayFullLedger(Scanner scanner, LedgerStore store) {
+        Ledger ledger = store.snapshot();
+        String tableTitle = TABLE_TITLE+"FULL LEDGER TABLE\n"+formatSummary(ledger.rollups().range(null, null));
+        displayPages(scanner, ledger, QueryPlanner.plan(ledger, RowQuery.ALL).cursor(), tableTitle,
+                tableTitle+"\nNo transaction data found in file", Metrics.SCAN_ALL);
     }
 
     /**
      * Filters and displays transactions based on their type (deposit or payment).
      * <p>
      * The method determines whether to filter for deposits (positive amounts) or payments
-     * (negative amounts) based on the {@code isDeposit} flag. It then calls
-     * {@link #displayFilteredTransactions(Predicate, ArrayList, String)} to display the matching
-     * transactions.
+     * (negative amounts) based on the {@code isDeposit} flag, planned by the {@link QueryPlanner} as a
+     * primitive check of the cent column.
+     * It then calls {@link #displayFilteredTransactions(Scanner, RowCursor, Ledger, String, LatencyHistogram)} to display
+     * the matching transactions.
      * </p>
      *
+     * @param scanner a {@link Scanner} instance for reading page navigation input
      * @param isDeposit a boolean indicating whether to filter for deposits (true) or payments (false)
-     * @param transactions an {@link ArrayList} of {@link Transaction} objects to be filtered and displayed
+     * @param store the {@link LedgerStore} of transactions to be filtered and displayed
      */
-    public static void filterTransactionsByType(boolean isDeposit, ArrayList<Transaction> transactions) {
-        String tableTitle = TABLE_TITLE+((isDeposit) ? "DEPOSITS" : "PAYMENTS")+" TABLE";
-        displayFilteredTransactions(transaction ->
-                (isDeposit && transaction.amount() > 0) || (!isDeposit && transaction.amount() < 0),transactions,tableTitle);
+    public static void filterTransactionsByType(Scanner scanner, boolean isDeposit, LedgerStore store) {
+        Ledger ledger = store.snapshot();
+        Rollups.Summary totals = ledger.rollups().range(null, null);
+        String tableTitle = TABLE_TITLE+((isDeposit) ? "DEPOSITS" : "PAYMENTS")+" TABLE\n"
+                +formatAggregate(isDeposit ? "Deposits" : "Payments", isDeposit ? totals.deposits() : totals.payments());
+        displayFilteredTransactions(scanner, QueryPlanner.plan(ledger, RowQuery.ALL.ofType(isDeposit)).cursor(),
+                ledger,tableTitle, Metrics.SCAN_TYPE);
     }
 
     /**
      * Filters and displays transactions based on a specified date range.
      * <p>
-     * The method uses the provided start and end dates to filter transactions, returning
-     * only those that occur within the specified range (inclusive). It then calls
-     * {@link #displayFilteredTransactions(Predicate, ArrayList, String)} to display the matching
-     * transactions.
+     * The method resolves the start and end dates to a contiguous slice of the ledger's
+     * {@link DateIndex} by binary search, returning only those transactions that occur within the
+     * specified range (inclusive) without scanning the rest of the ledger. The totals of the range are
+     * summarized from the ledger's {@link Rollups} and shown under the title. While the store is loaded
+     * lazily, only the rows or partitions of the range are loaded, see {@link LedgerStore#snapshot(LocalDate, LocalDate)}.
+     * It then calls {@link #displayFilteredTransactions(Scanner, RowCursor, Ledger, String, LatencyHistogram)}
+     * to display the matching transactions.
      * </p>
      *
+     * @param scanner a {@link Scanner} instance for reading page navigation input
      * @param startDate the start date of the range for filtering transactions
      * @param endDate   the end date of the range for filtering transactions
-     * @param transactions an {@link ArrayList} of {@link Transaction} objects to be filtered and displayed
+     * @param store the {@link LedgerStore} of transactions to be filtered and displayed
      */
-    public static void filterTransactionsByDate(LocalDate startDate, LocalDate endDate, ArrayList<Transaction> transactions) {
-        String tableTitle = TABLE_TITLE+startDate+" TO "+endDate;
-        displayFilteredTransactions(transaction -> {
-            LocalDate transactionDate = transaction.date();
-            return !transactionDate.isBefore(startDate) && !transactionDate.isAfter(endDate);
-        },transactions,tableTitle);
+    public static void filterTransactionsByDate(Scanner scanner, LocalDate startDate, LocalDate endDate, LedgerStore store) {
+        Ledger ledger = store.snapshot(startDate, endDate);
+        String tableTitle = TABLE_TITLE+startDate+" TO "+endDate+"\n"+formatSummary(ledger.rollups().range(startDate, endDate));
+        displayFilteredTransactions(scanner, QueryPlanner.plan(ledger, RowQuery.ALL.between(startDate, endDate)).cursor(),
+                ledger, tableTitle, Metrics.SCAN_DATE);
     }
 
     /**
      * Filters and displays transactions based on the vendor name.
      * <p>
      * The method uses the provided vendor name to filter transactions, returning only
-     * those that contain the specified string in vendor name (case-insensitive). It then calls
-     * {@link #displayFilteredTransactions(Predicate, ArrayList, String)} to display the matching
-     * transactions.
+     * those that contain the specified string in vendor name (case-insensitive). The ledger's vendor
+     * {@link TrigramIndex} resolves the query to the matching vendor ids, and rows are checked by id.
+     * The totals of the matching vendors come from the ledger's {@link Rollups}. It then calls {@link #displayFilteredTransactions(Scanner, RowCursor, Ledger, String, LatencyHistogram)} to display
+     * the matching transactions.
      * </p>
      *
+     * @param scanner a {@link Scanner} instance for reading page navigation input
      * @param vendor       the vendor name to filter transactions by
-     * @param transactions an {@link ArrayList} of {@link Transaction} objects to be filtered and displayed
+     * @param store the {@link LedgerStore} of transactions to be filtered and displayed
      */
-    public static void filterTransactionsByVendor(String vendor, ArrayList<Transaction> transactions) {
-        String tableTitle = TABLE_TITLE+"VENDOR: "+vendor.toUpperCase();
-        displayFilteredTransactions(transaction -> transaction.vendor().toLowerCase().contains(vendor.toLowerCase()),
-                transactions,tableTitle);
+    public static void filterTransactionsByVendor(Scanner scanner, String vendor, LedgerStore store) {
+        Ledger ledger = store.snapshot();
+        BitSet vendorMatches = ledger.vendorSearch().matching(vendor);
+        String tableTitle = TABLE_TITLE+"VENDOR: "+vendor.toUpperCase()+"\n"+formatSummary(ledger.rollups().vendors(vendorMatches));
+        displayFilteredTransactions(scanner, QueryPlanner.plan(ledger, RowQuery.ALL.fromVendor(vendor)).cursor(),
+                ledger,tableTitle, Metrics.SCAN_VENDOR);
     }
 
     /**
@@ -103,43 +125,58 @@ public class TableManager {
      * description, vendor, and amount limits.
      * <p>
      * The method allows for filtering transactions based on specified criteria. Each criterion
-     * can be ignored by passing {@code null} for date, description, vendor, or amount limits.
-     * It then calls {@link #displayFilteredTransactions(Predicate, ArrayList, String)} to display the
-     * matching transactions.
+     * can be ignored by passing {@code null} for date, description or vendor, and {@link Long#MIN_VALUE}
+     * or {@link Long#MAX_VALUE} for the amount limits, which are given in cents and compared as primitives.
+     * The criteria are planned by the {@link QueryPlanner}: every bound is converted to its column
+     * representation once, the text criteria are resolved to dictionary ids through the ledger's
+     * {@link TrigramIndex}, and the clauses that remain are chained cheapest and most selective first.
+     * When a date bound is given, only the matching slice of the ledger's {@link DateIndex} is scanned,
+     * and a lazily loaded store only loads the rows or partitions that may fall within the bounds.
+     * It then calls {@link #displayFilteredTransactions(Scanner, RowCursor, Ledger, String, LatencyHistogram)} to display
+     * the matching transactions.
      * </p>
      *
+     * @param scanner       a {@link Scanner} instance for reading page navigation input
      * @param startDate     the start date for filtering (inclusive), or {@code null} to ignore
      * @param endDate       the end date for filtering (inclusive), or {@code null} to ignore
      * @param description    the description substring to filter by, or {@code null} to ignore
      * @param vendor        the vendor substring to filter by, or {@code null} to ignore
-     * @param minAmount     the minimum amount for filtering, or {@code null} to ignore
-     * @param maxAmount     the maximum amount for filtering, or {@code null} to ignore
-     * @param transactions  an {@link ArrayList} of {@link Transaction} objects to be filtered and displayed
+     * @param minCents      the minimum amount in cents (inclusive), or {@link Long#MIN_VALUE} to ignore
+     * @param maxCents      the maximum amount in cents (inclusive), or {@link Long#MAX_VALUE} to ignore
+     * @param store  the {@link LedgerStore} of transactions to be filtered and displayed
      */
-    public static void filterTransactionsByCustom(LocalDate startDate, LocalDate endDate, String description, String vendor,
-                                                  Double minAmount, Double maxAmount, ArrayList<Transaction> transactions) {
+    public static void filterTransactionsByCustom(Scanner scanner, LocalDate startDate, LocalDate endDate, String description,
+                                                  String vendor, long minCents, long maxCents, LedgerStore store) {
+        Ledger ledger = store.snapshot(startDate, endDate);
         String tableTitle = TABLE_TITLE+"CUSTOM SEARCH";
 
-        displayFilteredTransactions(transaction -> {
-            LocalDate transactionDate = transaction.date();
-
-            // Check date criteria
-            boolean dateMatches = (startDate == null || !transactionDate.isBefore(startDate)) &&
-                    (endDate == null || !transactionDate.isAfter(endDate));
-
-            // Check description criteria
-            boolean descriptionMatches = description == null || transaction.description().toLowerCase().contains(description.toLowerCase());
+        RowQuery query = RowQuery.ALL.between(startDate, endDate).describedBy(description).fromVendor(vendor)
+                .amountBetween(minCents, maxCents);
+        RowCursor matchingRows = QueryPlanner.plan(ledger, query).cursor();
+        displayFilteredTransactions(scanner, matchingRows, ledger, tableTitle, Metrics.SCAN_CUSTOM);
+    }
 
-            // Check vendor criteria
-            boolean vendorMatches = vendor == null || transaction.vendor().toLowerCase().contains(vendor.toLowerCase());
+    /**
+     * Formats the deposit and payment totals of a report as a single summary line.
+     * <p>
+     * The totals come from the ledger's {@link Rollups}, so the summary is available without scanning
+     * the rows of the report.
+     * </p>
+     *
+     * @param summary the {@link Rollups.Summary} of the report
+     * @return the summary line, ending with the net total
+     */
+    static String formatSummary(Rollups.Summary summary) {
+        return formatAggregate("Deposits", summary.deposits()) + " | " + formatAggregate("Payments", summary.payments())
+                + " | Net: " + TransactionCodec.formatCents(summary.netCents());
+    }
 
-            // Check amount criteria
-            boolean amountMatches = (minAmount == null || transaction.amount() >= minAmount) &&
-                    (maxAmount == null || transaction.amount() <= maxAmount);
+    private static String formatAggregate(String label, Rollups.Aggregate aggregate) {
+        if (aggregate.count() == 0) return label + ": 0";
 
-            // Combine all conditions
-            return dateMatches && descriptionMatches && vendorMatches && amountMatches;
-        }, transactions,tableTitle);
+        return label + ": " + aggregate.count() + " Totaling " + TransactionCodec.formatCents(aggregate.sumCents())
+                + " (Min " + TransactionCodec.formatCents(aggregate.minCents())
+                + ", Max " + TransactionCodec.formatCents(aggregate.maxCents()) + ")";
     }
 
     /**
@@ -159,109 +196,141 @@ public class TableManager {
     }
 
     /**
-     * Formats a {@link Transaction} object into a styled string for displaying as a table.
+     * Creates a {@link RowFormatter} for the table columns, alternating between the two row colors.
      * <p>
-     * The method applies alternating row colors for visual distinction and changes the color
-     * of the amount based on whether it is positive or negative. It formats the transaction's
-     * date, time, description, vendor, and amount according to predefined widths for proper alignment.
+     * The formatter writes the date, time, description, vendor, and amount of a row according to
+     * the predefined widths for proper alignment, and colors the amount based on whether it is
+     * positive or negative.
      * </p>
      *
-     * @param t           the {@link Transaction} object to be formatted
-     * @param isEvenRow   a boolean indicating whether the transaction is in an even row
-     * @return a single formatted table entry string representing the transaction, ready for display
+     * @return a new {@link RowFormatter} for one table
      */
-    private static String formatTableEntry(Transaction t, boolean isEvenRow) {
-        String color = isEvenRow ? TABLE_COLOR_0 : TABLE_COLOR_1;
-        String amountColor = (t.amount() < 0) ? NEGATIVE_COLOR : POSITIVE_COLOR;
-
-        return String.format("%s %-" + DATE_WIDTH + "s %s%s %-" + TIME_WIDTH
-                        + "s%s%s %-" + DESCRIPTION_WIDTH + "s %s%s %-" + VENDOR_WIDTH
-                        + "s %s%s %s%" + AMOUNT_WIDTH + "s " + BORDER_STRING + "%n",
-                color, t.date().format(DATE_FORMATTER), COLUMN_SEPARATOR,
-                color, t.time().format(TIME_FORMATTER), COLUMN_SEPARATOR,
-                color, validateAndTruncate(t.description(),DESCRIPTION_WIDTH), COLUMN_SEPARATOR,
-                color, validateAndTruncate(t.vendor(),VENDOR_WIDTH), COLUMN_SEPARATOR,
-                color, amountColor, validateAndTruncate(t.amount()));
+    private static RowFormatter createRowFormatter() {
+        return new RowFormatter(DATE_WIDTH, TIME_WIDTH, DESCRIPTION_WIDTH, VENDOR_WIDTH, AMOUNT_WIDTH,
+                BORDER_STRING, COLUMN_SEPARATOR, new String[]{TABLE_COLOR_0, TABLE_COLOR_1}, POSITIVE_COLOR, NEGATIVE_COLOR);
     }
 
     /**
-     * Validates and truncates a given input string to ensure it fits within a specified width.
+     * Streams the rows of a cursor to the console as a formatted table, one page at a time.
+     * <p>
+     * Each page holds at most {@link TrackerConfig#TABLE_PAGE_SIZE} rows. The rows are written straight
+     * to a buffered sink, adding the header, borders and spacing for visual clarity, and a
+     * {@link Transaction} is only created for the rows on the page. After each page the user can move
+     * to the next or previous page, or press Enter to leave the table.
+     * </p>
      * <p>
-     * If the input string exceeds the defined {@code DESCRIPTION_WIDTH}, it is truncated and
-     * appended with an ellipsis ("...") to indicate that it has been shortened. If the input is
-     * within the acceptable length, it is returned unchanged.
+     * Rows are pulled from the cursor lazily, so the first page appears without scanning the rest of
+     * the ledger. The cursor position at the start of every visited page is remembered, which lets
+     * the previous page be shown again without scanning from the top.
+     * </p>
+     * <p>
+     * When {@link Metrics#ENABLED}, the scan for every page is recorded in {@code scanLatency} with the
+     * positions visited and matched, and the rendering of every page in {@link Metrics#RENDER} with the
+     * bytes written to the console.
      * </p>
      *
-     * @param input the string to be validated and potentially truncated
-     * @return a string that fits within the {@code DESCRIPTION_WIDTH}, with an ellipsis appended if truncated
+     * @param scanner      a {@link Scanner} instance for reading page navigation input
+     * @param ledger       the {@link Ledger} holding the rows to be displayed
+     * @param cursor       the {@link RowCursor} producing the rows to be displayed, in display order
+     * @param tableTitle   the title printed above every page
+     * @param emptyMessage the message printed if the cursor has no rows
+     * @param scanLatency  the {@link LatencyHistogram} the page scans are recorded in
      */
-    private static String validateAndTruncate(String input, int targetSize){
-        String output;
+    private static void displayPages(Scanner scanner, Ledger ledger, RowCursor cursor, String tableTitle,
+                                     String emptyMessage, LatencyHistogram scanLatency) {
+        Metrics.CountingOutputStream counter = Metrics.ENABLED ? new Metrics.CountingOutputStream(System.out) : null;
+        Writer output = new BufferedWriter(new OutputStreamWriter(Metrics.ENABLED ? counter : System.out), OUTPUT_BUFFER_SIZE);
+        RowFormatter formatter = createRowFormatter();
+        int[] rows = new int[TrackerConfig.TABLE_PAGE_SIZE];
+        int[] pageStarts = {cursor.position()};
+        int pageCount = 1;
+        int page = 0;
 
-        if(input.length() > targetSize){
-            output = input.substring(0,targetSize - TRUNCATION_STRING.length());
-            output += TRUNCATION_STRING;
-        }else{
-            output = input;
-        }
+        while (true) {
+            long scanStart = Metrics.ENABLED ? System.nanoTime() : 0;
+            cursor.seek(pageStarts[page]);
+            int rowCount = cursor.next(rows);
+            boolean hasNextPage = rowCount > 0 && cursor.hasNext();
+            if (Metrics.ENABLED) {
+                scanLatency.record(System.nanoTime() - scanStart, pageStarts[page] - cursor.position(), rowCount);
+            }
+            if (hasNextPage && page + 1 == pageCount) {
+                if (pageCount == pageStarts.length) pageStarts = Arrays.copyOf(pageStarts, pageCount * 2);
+                pageStarts[pageCount++] = cursor.position();
+            }
 
-        return output;
-    }
+            long renderStart = Metrics.ENABLED ? System.nanoTime() : 0;
+            long renderBytes = Metrics.ENABLED ? counter.count() : 0;
+            try {
+                if (rowCount == 0) {
+                    output.write(emptyMessage + "\nPress Enter To Continue" + System.lineSeparator());
+                } else {
+                    writePage(output, formatter, ledger, rows, rowCount, tableTitle);
+                    output.write("\n" + pageNavigation(page, hasNextPage) + "Press Enter To Continue" + System.lineSeparator());
+                }
+                output.flush();
+                if (Metrics.ENABLED) Metrics.RENDER.record(System.nanoTime() - renderStart, counter.count() - renderBytes);
+            } catch (IOException e) {
+                System.out.println("Error Displaying Table " + e);
+            }
 
-    private static String validateAndTruncate(Double input){
-        String value = String.format("%.2f",input);
-        return validateAndTruncate(value,AMOUNT_WIDTH);
+            String input = scanner.nextLine().trim().toUpperCase();
+            if (rowCount == 0) return;
+            if (input.equals("N") && hasNextPage) page++;
+            else if (input.equals("P") && page > 0) page--;
+            else return;
+        }
     }
 
     /**
-     * Generates a formatted string representation of a table displaying a list of transactions.
-     * <p>
-     * If the provided list of transactions is empty, a message indicating that no data is found
-     * is returned. Otherwise, the method constructs the table as a string by appending a header and formatting
-     * each transaction, adding borders and spacing for visual clarity.
-     * </p>
+     * Writes one page of rows as a formatted table, with the title, header and footer.
      *
-     * @param targetInventory an {@link ArrayList} of {@link Transaction} objects to be displayed
-     * @return a formatted string representing the transaction array as a table, or a message if no data is found
+     * @param output     the sink the table is written to
+     * @param formatter  the {@link RowFormatter} used for every row
+     * @param ledger     the {@link Ledger} holding the rows
+     * @param rows       the row numbers of the page, in display order
+     * @param rowCount   the number of rows on the page
+     * @param tableTitle the title written above the table
+     * @throws IOException if the sink cannot be written
      */
-    private static String formattedTableDisplay(ArrayList<Transaction> targetInventory) {
-        if (targetInventory.isEmpty()) return "No transaction data found in file";
-
-        StringBuilder output = new StringBuilder();
-        output.append(createTableHeader());
-
-        for (int i = 0; i < targetInventory.size(); i++) {
-            Transaction t = targetInventory.get(i);
-            output.append(BORDER_STRING);
-            output.append(formatTableEntry(t, i % 2 == 0));
+    private static void writePage(Writer output, RowFormatter formatter, Ledger ledger, int[] rows, int rowCount,
+                                  String tableTitle) throws IOException {
+        output.write(tableTitle + System.lineSeparator());
+        output.write(createTableHeader());
+        for (int i = 0; i < rowCount; i++) {
+            formatter.format(ledger, rows[i], i).writeTo(output);
         }
 
         // Construct the footer from the total row size
         int footerSize = DATE_WIDTH + TIME_WIDTH + DESCRIPTION_WIDTH + VENDOR_WIDTH + AMOUNT_WIDTH + SPACING_OFFSET;
-        output.append(BORDER_STRING).append(HEADER_COLOR).append(" ".repeat(footerSize)).append(RESET_COLOR).append(BORDER_STRING);
-        output.append("\nPress Enter To Continue");
+        output.write(BORDER_STRING + HEADER_COLOR + " ".repeat(footerSize) + RESET_COLOR + BORDER_STRING);
+    }
 
-        return output.toString();
+    /**
+     * Builds the navigation prompt shown under a page, offering only the moves that are possible.
+     */
+    private static String pageNavigation(int page, boolean hasNextPage) {
+        if (page == 0 && !hasNextPage) return "";
+
+        return "Page " + (page + 1) + " | " + (hasNextPage ? "N) Next Page | " : "")
+                + (page > 0 ? "P) Previous Page | " : "");
     }
 
     /**
-     * Returns a string representing the filtered array as a fully formatted table, ready to display.
+     * Displays the rows of a cursor as a paginated table, ready to display.
      * <p>
-     * The method applies the provided {@link Predicate} to the list of transactions,
-     * filtering out those that do not match. It then sends the filtered results to
-     * {@link #formattedTableDisplay(ArrayList)} for displaying. If no transactions match the criteria, a message indicating this
-     * is displayed.
+     * The method sends the matching rows, produced lazily by a cursor of a {@link QueryPlanner.QueryPlan}, to
+     * {@link #displayPages(Scanner, Ledger, RowCursor, String, String, LatencyHistogram)} for displaying. If no transactions
+     * match the criteria, a message indicating this is displayed.
      * </p>
      *
-     * @param filter a {@link Predicate} used to filter the transactions
-     * @param transactions an {@link ArrayList} of {@link Transaction} objects to be filtered and displayed
+     * @param scanner      a {@link Scanner} instance for reading page navigation input
+     * @param matchingRows the {@link RowCursor} over the rows matching the filter, in display order
+     * @param ledger the {@link Ledger} holding the rows to be displayed
+     * @param scanLatency the {@link LatencyHistogram} the scans of the filter are recorded in
      */
-    private static void displayFilteredTransactions(Predicate<Transaction> filter,ArrayList<Transaction> transactions,String tableTitle) {
-        List<Transaction> filteredTransactions = transactions.stream()  // Checking for entries matching indicated filters
-                .filter(filter)
-                .toList();
-
-        System.out.println(filteredTransactions.isEmpty() ? "\nNo Results Found Matching Criteria.\nPress Enter To Continue"
-                : tableTitle+"\n"+ formattedTableDisplay(new ArrayList<>(filteredTransactions)));
+    private static void displayFilteredTransactions(Scanner scanner, RowCursor matchingRows, Ledger ledger, String tableTitle,
+                                                    LatencyHistogram scanLatency) {
+        displayPages(scanner, ledger, matchingRows, tableTitle, "\nNo Results Found Matching Criteria.", scanLatency);
     }
 }
@@ -0,0 +1,82 @@
+package com.pluralsight;
+
+/**
+ * Tunable settings of the tracker, read once from system properties at startup.
+ * <p>
+ * Every setting has a default that matches the behaviour of a plain interactive session, so the
+ * tracker runs without any properties set. Settings are passed on the command line, for example
+ * {@code java -Dtracker.durability=fsync -jar FinancialTracker.jar}.
+ * </p>
+ */
+public class TrackerConfig {
+    /** Data file, or partitioned directory, the tracker loads and appends to. Property {@code tracker.dataFile}. */
+    public static final String DATA_FILE = System.getProperty("tracker.dataFile", "transactions.csv");
+
+    /** When an append is acknowledged, see {@link DurabilityMode}. Property {@code tracker.durability}. */
+    public static final DurabilityMode DURABILITY =
+            DurabilityMode.valueOf(System.getProperty("tracker.durability", "flush").trim().toUpperCase());
+
+    /** Number of pending bytes that triggers a batch write. Property {@code tracker.write.batchBytes}. */
+    public static final int WRITE_BATCH_BYTES = Integer.getInteger("tracker.write.batchBytes", 64 * 1024);
+
+    /** Longest time a pending row waits before its batch is written. Property {@code tracker.write.maxDelayMillis}. */
+    public static final long WRITE_MAX_DELAY_MILLIS = Long.getLong("tracker.write.maxDelayMillis", 200);
+
+    /** Size of the write-ahead log that triggers a fold into the data file. Property {@code tracker.wal.compactBytes}. */
+    public static final long WAL_COMPACT_BYTES = Long.getLong("tracker.wal.compactBytes", 1024 * 1024);
+
+    /** Interval at which the write-ahead log is folded into the data file. Property {@code tracker.wal.compactIntervalMillis}. */
+    public static final long WAL_COMPACT_INTERVAL_MILLIS = Long.getLong("tracker.wal.compactIntervalMillis", 5000);
+
+    /** Whether ledgers are loaded through a binary snapshot next to the data file. Property {@code tracker.snapshot}. */
+    public static final boolean SNAPSHOT = Boolean.parseBoolean(System.getProperty("tracker.snapshot", "false"));
+
+    /** Number of data file bytes parsed after the snapshot that triggers a rewrite. Property {@code tracker.snapshot.rebuildBytes}. */
+    public static final long SNAPSHOT_REBUILD_BYTES = Long.getLong("tracker.snapshot.rebuildBytes", 1024 * 1024);
+
+    /** Whether a snapshot is checked against every data file byte it covers, not only sampled blocks. Property {@code tracker.snapshot.verify}. */
+    public static final boolean SNAPSHOT_VERIFY = Boolean.parseBoolean(System.getProperty("tracker.snapshot.verify", "false"));
+
+    /** Whether the data file is indexed at startup and only loaded in full when first needed, see {@link LineIndex}. Property {@code tracker.lazy}. */
+    public static final boolean LAZY = Boolean.parseBoolean(System.getProperty("tracker.lazy", "false"));
+
+    /** Number of rows decoded on demand that a {@link LineIndex} keeps in memory. Property {@code tracker.lazy.cacheRows}. */
+    public static final int LAZY_CACHE_ROWS = Math.max(0, Integer.getInteger("tracker.lazy.cacheRows", 100_000));
+
+    /** Whether rows appended to the data file by other processes are merged into the ledger. Property {@code tracker.tail}. */
+    public static final boolean TAIL = Boolean.parseBoolean(System.getProperty("tracker.tail", "true"));
+
+    /** How long the data file must stay unchanged before appended rows are merged. Property {@code tracker.tail.settleMillis}. */
+    public static final long TAIL_SETTLE_MILLIS = Long.getLong("tracker.tail.settleMillis", 100);
+
+    /** Port the {@link LedgerServer} listens on. Property {@code tracker.server.port}. */
+    public static final int SERVER_PORT = Integer.getInteger("tracker.server.port", 8080);
+
+    /** Number of requests the {@link LedgerServer} handles at once. Property {@code tracker.server.maxConcurrent}. */
+    public static final int SERVER_MAX_CONCURRENT = Math.max(1, Integer.getInteger("tracker.server.maxConcurrent", 256));
+
+    /** Longest time a request waits to be handled before it is refused. Property {@code tracker.server.acquireTimeoutMillis}. */
+    public static final long SERVER_ACQUIRE_TIMEOUT_MILLIS = Long.getLong("tracker.server.acquireTimeoutMillis", 1000);
+
+    /** Whether load, scan, render and append latencies are recorded, see {@link Metrics}. Property {@code tracker.metrics}. */
+    public static final boolean METRICS = Boolean.parseBoolean(System.getProperty("tracker.metrics", "false"));
+
+    /** File the recorded latencies are periodically appended to, none if unset. Property {@code tracker.metrics.dumpFile}. */
+    public static final String METRICS_DUMP_FILE = System.getProperty("tracker.metrics.dumpFile");
+
+    /** Interval at which recorded latencies are appended to the dump file. Property {@code tracker.metrics.dumpIntervalMillis}. */
+    public static final long METRICS_DUMP_INTERVAL_MILLIS = Math.max(1, Long.getLong("tracker.metrics.dumpIntervalMillis", 60_000));
+
+    /** Number of rows shown on each page of a table. Property {@code tracker.table.pageSize}. */
+    public static final int TABLE_PAGE_SIZE = Math.max(1, Integer.getInteger("tracker.table.pageSize", 50));
+
+    /** How filters scan the ledger, see {@link ScanMode}. Property {@code tracker.scan.mode}. */
+    public static final ScanMode SCAN_MODE =
+            ScanMode.valueOf(System.getProperty("tracker.scan.mode", "auto").trim().toUpperCase());
+
+    /** Number of scanned positions from which {@link ScanMode#AUTO} scans in parallel. Property {@code tracker.scan.parallelThreshold}. */
+    public static final int SCAN_PARALLEL_THRESHOLD = Integer.getInteger("tracker.scan.parallelThreshold", 262_144);
+
+    /** Largest number of positions tested by one task of a parallel scan. Property {@code tracker.scan.splitSize}. */
+    public static final int SCAN_SPLIT_SIZE = Math.max(1024, Integer.getInteger("tracker.scan.splitSize", 32_768));
+}
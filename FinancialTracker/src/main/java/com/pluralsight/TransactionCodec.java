@@ -0,0 +1,607 @@
+package com.pluralsight;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes ledger rows in the pipe-delimited {@code yyyy-MM-dd|HH:mm:ss|desc|vendor|amount} layout.
+ * <p>
+ * Dates, times and amounts are decoded straight from the row bytes, without creating intermediate
+ * strings. Rows that do not follow the canonical layout (e.g. {@code HH:mm} times or exponent
+ * amounts) fall back to the {@link LocalDate}, {@link LocalTime} and {@link BigDecimal} parsers, so
+ * every finite amount the previous split based parser accepted is still accepted.
+ * </p>
+ * <p>
+ * Amounts are held as whole cents in a {@code long} from parsing to formatting and never pass through
+ * a {@code double}, so sums over them are exact. Amounts with more than two decimals are rounded
+ * half-up to the cent, the rounding the data file has always been written with.
+ * </p>
+ */
+public class TransactionCodec {
+    private static final byte DELIMITER = '|';
+    private static final byte DATE_SEPARATOR = '-';
+    private static final byte TIME_SEPARATOR = ':';
+    private static final byte DECIMAL_POINT = '.';
+    private static final byte MINUS_SIGN = '-';
+    private static final byte PLUS_SIGN = '+';
+    private static final int FIELD_COUNT = 5;
+    private static final int DATE_LENGTH = 10;
+    private static final int TIME_LENGTH = 8;
+    private static final long MAX_WHOLE_UNITS = Long.MAX_VALUE / 100 - 1;   // Largest whole amount whose cents fit a long after rounding
+    private static final long DAYS_0000_TO_1970 = 719528;
+    private static final long DAYS_0000_03_01_TO_1970 = 719468;   // Counting from March, so leap days fall at the end of a year
+    private static final int DAYS_PER_ERA = 146_097;                // Days in a 400 year Gregorian cycle
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final int STRING_CACHE_ENTRIES = 1 << 16;   // Distinct values kept per text column of a decoder
+
+    /**
+     * Reusable decoder for rows held in a {@link ByteBuffer}.
+     * <p>
+     * A decoder keeps its scratch space between rows, so one instance should be used per
+     * thread for an entire load. Instances are not thread-safe.
+     * </p>
+     * <p>
+     * Descriptions and vendors are resolved through a {@link ByteStringCache} per column, so a value
+     * repeated across rows is decoded into a single {@link String} instance and later occurrences
+     * allocate nothing.
+     * </p>
+     */
+    public static class Decoder {
+        private final int[] fieldStarts = new int[FIELD_COUNT];
+        private final int[] fieldEnds = new int[FIELD_COUNT];
+        private final ByteStringCache descriptions = new ByteStringCache(STRING_CACHE_ENTRIES);
+        private final ByteStringCache vendors = new ByteStringCache(STRING_CACHE_ENTRIES);
+        private byte[] scratch = new byte[128];
+
+        /**
+         * Decodes a single row into a {@link Transaction}.
+         * <p>
+         * Every field is trimmed of surrounding whitespace. Trailing empty fields are ignored,
+         * and rows that do not consist of exactly five fields are skipped by returning {@code null}.
+         * </p>
+         *
+         * @param buffer the buffer holding the row bytes
+         * @param start  the index of the first byte of the row
+         * @param end    the index after the last byte of the row, excluding the line terminator
+         * @return the decoded {@link Transaction}, or {@code null} if the row does not have five fields
+         * @throws java.time.DateTimeException if the date or time is invalid
+         * @throws NumberFormatException      if the amount is not a number
+         */
+        public Transaction decode(ByteBuffer buffer, int start, int end) {
+            if (!splitFields(buffer, start, end)) return null;
+
+            LocalDate date = decodeDate(buffer, fieldStarts[0], fieldEnds[0]);
+            LocalTime time = decodeTime(buffer, fieldStarts[1], fieldEnds[1]);
+            String description = descriptions.get(buffer, fieldStarts[2], fieldEnds[2]);
+            String vendor = vendors.get(buffer, fieldStarts[3], fieldEnds[3]);
+            long cents = decodeCents(buffer, fieldStarts[4], fieldEnds[4]);
+
+            return new Transaction(date, time, description, vendor, cents);
+        }
+
+        /**
+         * Decodes a single row straight into the columns of a {@link Ledger}.
+         * <p>
+         * The date, time and amount are decoded into their epoch day, second of day and cent
+         * values without creating {@link LocalDate}, {@link LocalTime} or intermediate string
+         * objects, and repeated descriptions and vendors reach the ledger as the same instance.
+         * Field handling matches {@link #decode(ByteBuffer, int, int)}.
+         * </p>
+         *
+         * @param buffer the buffer holding the row bytes
+         * @param start  the index of the first byte of the row
+         * @param end    the index after the last byte of the row, excluding the line terminator
+         * @param ledger the ledger the row is appended to
+         * @return {@code true} if the row was appended, {@code false} if it does not have five fields
+         * @throws java.time.DateTimeException if the date or time is invalid
+         * @throws NumberFormatException      if the amount is not a number
+         */
+        public boolean decodeInto(ByteBuffer buffer, int start, int end, Ledger ledger) {
+            if (!splitFields(buffer, start, end)) return false;
+
+            int epochDay = decodeEpochDay(buffer, fieldStarts[0], fieldEnds[0]);
+            int secondOfDay = decodeSecondOfDay(buffer, fieldStarts[1], fieldEnds[1]);
+            String description = descriptions.get(buffer, fieldStarts[2], fieldEnds[2]);
+            String vendor = vendors.get(buffer, fieldStarts[3], fieldEnds[3]);
+            long cents = decodeCents(buffer, fieldStarts[4], fieldEnds[4]);
+
+            ledger.append(epochDay, secondOfDay, description, vendor, cents);
+            return true;
+        }
+
+        /**
+         * Decodes only the date of a row, for indexing rows without parsing their other fields.
+         * <p>
+         * Field handling matches {@link #decode(ByteBuffer, int, int)}, so a row is indexed exactly
+         * when it would be loaded.
+         * </p>
+         *
+         * @param buffer the buffer holding the row bytes
+         * @param start  the index of the first byte of the row
+         * @param end    the index after the last byte of the row, excluding the line terminator
+         * @return the day count from 1970-01-01 of the row, or {@link Integer#MIN_VALUE} if it does not have five fields
+         * @throws java.time.DateTimeException if the date is invalid
+         */
+        public int decodeRowDate(ByteBuffer buffer, int start, int end) {
+            if (!splitFields(buffer, start, end)) return Integer.MIN_VALUE;
+            return decodeEpochDay(buffer, fieldStarts[0], fieldEnds[0]);
+        }
+
+        /**
+         * Locates the five trimmed fields of a row, mirroring the semantics of {@code String.split}
+         * (trailing empty fields are dropped before the field count is checked).
+         */
+        private boolean splitFields(ByteBuffer buffer, int start, int end) {
+            while (end > start && buffer.get(end - 1) == DELIMITER) end--;
+
+            int field = 0;
+            int fieldStart = start;
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) != DELIMITER) continue;
+                if (field == FIELD_COUNT - 1) return false;
+                setField(buffer, field++, fieldStart, i);
+                fieldStart = i + 1;
+            }
+            if (field != FIELD_COUNT - 1) return false;
+            setField(buffer, field, fieldStart, end);
+            return true;
+        }
+
+        private void setField(ByteBuffer buffer, int field, int start, int end) {
+            while (start < end && isWhitespace(buffer.get(start))) start++;
+            while (end > start && isWhitespace(buffer.get(end - 1))) end--;
+            fieldStarts[field] = start;
+            fieldEnds[field] = end;
+        }
+
+        private String decodeString(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private LocalDate decodeDate(ByteBuffer buffer, int start, int end) {
+            if (end - start == DATE_LENGTH
+                    && buffer.get(start + 4) == DATE_SEPARATOR && buffer.get(start + 7) == DATE_SEPARATOR) {
+                int year = digits(buffer, start, 4);
+                int month = digits(buffer, start + 5, 2);
+                int day = digits(buffer, start + 8, 2);
+                if ((year | month | day) >= 0) return LocalDate.of(year, month, day);
+            }
+            return LocalDate.parse(decodeString(buffer, start, end));
+        }
+
+        private int decodeEpochDay(ByteBuffer buffer, int start, int end) {
+            if (end - start == DATE_LENGTH) {
+                int epochDay = canonicalEpochDay(buffer, start);
+                if (epochDay != Integer.MIN_VALUE) return epochDay;
+            }
+            return (int) decodeDate(buffer, start, end).toEpochDay();
+        }
+
+        private int decodeSecondOfDay(ByteBuffer buffer, int start, int end) {
+            if (end - start == TIME_LENGTH
+                    && buffer.get(start + 2) == TIME_SEPARATOR && buffer.get(start + 5) == TIME_SEPARATOR) {
+                int hour = digits(buffer, start, 2);
+                int minute = digits(buffer, start + 3, 2);
+                int second = digits(buffer, start + 6, 2);
+                if ((hour | minute | second) >= 0 && hour < 24 && minute < 60 && second < 60) {
+                    return hour * 3600 + minute * 60 + second;
+                }
+            }
+            return decodeTime(buffer, start, end).toSecondOfDay();
+        }
+
+        private LocalTime decodeTime(ByteBuffer buffer, int start, int end) {
+            if (end - start == TIME_LENGTH
+                    && buffer.get(start + 2) == TIME_SEPARATOR && buffer.get(start + 5) == TIME_SEPARATOR) {
+                int hour = digits(buffer, start, 2);
+                int minute = digits(buffer, start + 3, 2);
+                int second = digits(buffer, start + 6, 2);
+                if ((hour | minute | second) >= 0) return LocalTime.of(hour, minute, second);
+            }
+            return LocalTime.parse(decodeString(buffer, start, end));
+        }
+
+        private long decodeCents(ByteBuffer buffer, int start, int end) {
+            long cents = parseCents(buffer, start, end);
+            if (cents != Long.MIN_VALUE) return cents;
+            return parseCents(decodeString(buffer, start, end));
+        }
+    }
+
+    /**
+     * Reusable encoder that writes rows into a growable byte buffer.
+     * <p>
+     * Each encoded row is prefixed with the platform line separator, matching the append
+     * format used for the data file. The buffer is reused between rows, so the encoder
+     * allocates nothing once it has grown to fit the longest row. Instances are not thread-safe.
+     * </p>
+     */
+    public static class Encoder {
+        private byte[] buffer = new byte[128];
+        private int length;
+
+        /**
+         * Clears the buffer and encodes a single row into it.
+         *
+         * @param t the {@link Transaction} to encode
+         * @return this encoder, for chaining
+         */
+        public Encoder encode(Transaction t) {
+            length = 0;
+            return append(t);
+        }
+
+        /**
+         * Appends a single row to whatever is already held in the buffer.
+         *
+         * @param t the {@link Transaction} to encode
+         * @return this encoder, for chaining
+         */
+        public Encoder append(Transaction t) {
+            writeBytes(LINE_SEPARATOR);
+            writeDate(t.date());
+            writeByte(DELIMITER);
+            writeTime(t.time());
+            writeByte(DELIMITER);
+            writeString(t.description());
+            writeByte(DELIMITER);
+            writeString(t.vendor());
+            writeByte(DELIMITER);
+            writeAmount(t.cents());
+            return this;
+        }
+
+        /**
+         * Appends a big-endian integer to the buffer, used for framing encoded rows.
+         *
+         * @param value the value to append
+         * @return this encoder, for chaining
+         */
+        public Encoder appendInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            buffer[length++] = (byte) (value >>> 24);
+            buffer[length++] = (byte) (value >>> 16);
+            buffer[length++] = (byte) (value >>> 8);
+            buffer[length++] = (byte) value;
+            return this;
+        }
+
+        /**
+         * Appends everything held by another encoder to the buffer.
+         *
+         * @param other the encoder whose bytes are appended
+         * @return this encoder, for chaining
+         */
+        public Encoder append(Encoder other) {
+            ensureCapacity(other.length);
+            System.arraycopy(other.buffer, 0, buffer, length, other.length);
+            length += other.length;
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public Encoder reset() {
+            length = 0;
+            return this;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buffer, 0, length);
+        }
+
+        public ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buffer, 0, length);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void writeDate(LocalDate date) {
+            ensureCapacity(DATE_LENGTH + 1);
+            int year = date.getYear();
+            if (year < 0 || year > 9999) {
+                writeString(date.format(InputValidator.DATE_FORMATTER));
+                return;
+            }
+            writeDigits(year, 4);
+            buffer[length++] = DATE_SEPARATOR;
+            writeDigits(date.getMonthValue(), 2);
+            buffer[length++] = DATE_SEPARATOR;
+            writeDigits(date.getDayOfMonth(), 2);
+        }
+
+        private void writeTime(LocalTime time) {
+            ensureCapacity(TIME_LENGTH);
+            writeDigits(time.getHour(), 2);
+            buffer[length++] = TIME_SEPARATOR;
+            writeDigits(time.getMinute(), 2);
+            buffer[length++] = TIME_SEPARATOR;
+            writeDigits(time.getSecond(), 2);
+        }
+
+        private void writeAmount(long cents) {
+            if (cents == Long.MIN_VALUE) {
+                writeString(formatCents(cents));
+                return;
+            }
+
+            ensureCapacity(22);
+            if (cents < 0) buffer[length++] = MINUS_SIGN;
+            long magnitude = Math.abs(cents);
+            writeLong(magnitude / 100);
+            buffer[length++] = DECIMAL_POINT;
+            writeDigits((int) (magnitude % 100), 2);
+        }
+
+        private void writeLong(long value) {
+            int digitCount = 1;
+            for (long v = value; v >= 10; v /= 10) digitCount++;
+            for (int i = length + digitCount - 1; i >= length; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digitCount;
+        }
+
+        private void writeDigits(int value, int digitCount) {
+            for (int i = length + digitCount - 1; i >= length; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digitCount;
+        }
+
+        private void writeString(String value) {
+            int count = value.length();
+            ensureCapacity(count);
+            for (int i = 0; i < count; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    writeBytes(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                buffer[length++] = (byte) c;
+            }
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[length++] = value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(length + extra, buffer.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Parses a decimal amount, such as {@code -38.24} or {@code 1500}, into whole cents.
+     * <p>
+     * Surrounding whitespace and a leading sign are accepted, and digits past the second decimal are
+     * rounded half-up. The digits are accumulated directly into a {@code long}; only amounts outside
+     * the plain {@code [-]digits[.digits]} layout, such as exponent notation, go through {@link BigDecimal}.
+     * </p>
+     *
+     * @param text the amount to parse
+     * @return the amount in cents
+     * @throws NumberFormatException if the text is not a finite number or too large to be held in cents
+     */
+    public static long parseCents(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+
+        boolean negative = false;
+        if (start < end && (text.charAt(start) == MINUS_SIGN || text.charAt(start) == PLUS_SIGN)) {
+            negative = text.charAt(start++) == MINUS_SIGN;
+        }
+
+        long whole = 0;
+        int i = start;
+        for (; i < end && whole <= MAX_WHOLE_UNITS; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) break;
+            whole = whole * 10 + digit;
+        }
+        int wholeDigits = i - start;
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (i < end && text.charAt(i) == DECIMAL_POINT) {
+            for (i++; i < end; i++, fractionDigits++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) break;
+                if (fractionDigits < 2) fraction = fraction * 10 + digit;
+                else if (fractionDigits == 2) roundUp = digit >= 5;
+            }
+            if (fractionDigits == 1) fraction *= 10;
+        }
+
+        if (i != end || whole > MAX_WHOLE_UNITS || wholeDigits + fractionDigits == 0) {
+            return parseCentsExactly(text.subSequence(start, end).toString(), negative);
+        }
+        long cents = whole * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Parses an unsigned amount in any notation {@link BigDecimal} accepts, rounding it half-up to cents.
+     */
+    private static long parseCentsExactly(String magnitude, boolean negative) {
+        if (magnitude.isEmpty() || magnitude.charAt(0) == MINUS_SIGN || magnitude.charAt(0) == PLUS_SIGN) {
+            throw new NumberFormatException("Invalid amount: " + magnitude);
+        }
+        try {
+            long cents = new BigDecimal(magnitude).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+            return negative ? -cents : cents;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + magnitude);
+        }
+    }
+
+    /**
+     * Formats an amount in cents the way {@code %.2f} formats the same amount, without going through a double.
+     *
+     * @param cents the amount in cents
+     * @return the amount with two decimals, such as {@code -38.24}
+     */
+    public static String formatCents(long cents) {
+        String magnitude = Long.toUnsignedString(Math.abs(cents));
+        if (magnitude.length() < 3) magnitude = "0".repeat(3 - magnitude.length()) + magnitude;
+        int point = magnitude.length() - 2;
+        return (cents < 0 ? "-" : "") + magnitude.substring(0, point) + "." + magnitude.substring(point);
+    }
+
+    /**
+     * Converts a day count from 1970-01-01 to its proleptic Gregorian date without creating a
+     * {@link LocalDate}, packed as {@code year * 10000 + month * 100 + day}.
+     * <p>
+     * The year is recovered with {@code Math.floorDiv(packed, 10000)}, the month and day from
+     * {@code Math.floorMod(packed, 10000)}, which keeps the packing valid for negative years.
+     * </p>
+     *
+     * @param epochDay the day count from 1970-01-01
+     * @return the packed date
+     */
+    static long civilDate(long epochDay) {
+        long shifted = epochDay + DAYS_0000_03_01_TO_1970;
+        long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        int dayOfEra = (int) (shifted - era * DAYS_PER_ERA);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10_000 + month * 100 + day;
+    }
+
+    /**
+     * Parses an amount in the canonical {@code [-]digits[.d[d]]} layout directly into cents.
+     *
+     * @return the amount in cents, or {@code Long.MIN_VALUE} if the field is not in the canonical layout
+     */
+    static long parseCents(ByteBuffer buffer, int start, int end) {
+        if (start >= end) return Long.MIN_VALUE;
+
+        boolean negative = false;
+        byte first = buffer.get(start);
+        if (first == MINUS_SIGN || first == PLUS_SIGN) {
+            negative = first == MINUS_SIGN;
+            start++;
+        }
+
+        long whole = 0;
+        int i = start;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) break;
+            whole = whole * 10 + digit;
+            if (whole > MAX_WHOLE_UNITS) return Long.MIN_VALUE;
+        }
+        int wholeDigits = i - start;
+
+        int fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && buffer.get(i) == DECIMAL_POINT) {
+            for (i++; i < end && fractionDigits < 3; i++, fractionDigits++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+                fraction = fraction * 10 + digit;
+            }
+            if (fractionDigits > 2) return Long.MIN_VALUE;
+            if (fractionDigits == 1) fraction *= 10;
+        }
+
+        if (i != end || wholeDigits + fractionDigits == 0) return Long.MIN_VALUE;
+
+        long cents = whole * 100 + fraction;
+        if (negative && cents == 0) return Long.MIN_VALUE;     // Negative zero has no cent representation
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Decodes a valid date in the canonical {@code yyyy-MM-dd} layout directly into its day count from 1970-01-01.
+     *
+     * @param buffer the buffer holding the date
+     * @param start  the index of the first byte of the date, which must be followed by at least nine more
+     * @return the day count, or {@link Integer#MIN_VALUE} if the bytes are not a valid canonical date
+     */
+    static int canonicalEpochDay(ByteBuffer buffer, int start) {
+        if (buffer.get(start + 4) != DATE_SEPARATOR || buffer.get(start + 7) != DATE_SEPARATOR) return Integer.MIN_VALUE;
+
+        int year = digits(buffer, start, 4);
+        int month = digits(buffer, start + 5, 2);
+        int day = digits(buffer, start + 8, 2);
+        if ((year | month | day) < 0 || !isValidDate(year, month, day)) return Integer.MIN_VALUE;
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Checks that the day exists in the given month, taking leap years into account.
+     */
+    private static boolean isValidDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1) return false;
+        if (month == 2) return day <= (isLeapYear(year) ? 29 : 28);
+        return day <= ((month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31);
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    /**
+     * Computes the day count from 1970-01-01 for a validated, non-negative year,
+     * using the same arithmetic as {@link LocalDate#toEpochDay()}.
+     */
+    private static int epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12 + day - 1;
+        if (month > 2) total -= isLeapYear(year) ? 1 : 2;
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+
+    /**
+     * Reads {@code count} ASCII digits as an integer.
+     *
+     * @return the parsed value, or {@code -1} if any byte is not a digit
+     */
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+}
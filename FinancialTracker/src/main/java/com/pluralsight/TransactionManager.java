@@ -1,49 +1,197 @@
 package com.pluralsight;
 
 import java.io.*;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TransactionManager {
-    private static final String CSV_DELIMITER = "\\|";
+    private static final Map<Path, LedgerWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final Map<Path, LedgerTail> TAILS = new ConcurrentHashMap<>();
+    private static final Map<Path, PartitionedLedger> PARTITIONS = new ConcurrentHashMap<>();
 
     /**
      * Loads transactions from a specified CSV file and adds them to the provided list.
      * <p>
-     * The method reads each line of the file, splits the line into values using the
-     * specified CSV delimiter, and parses each valid line into a {@link Transaction}
-     * object using the {@link #parseTransaction(String[])} method. Only lines with
-     * exactly five values are processed.
+     * The file is memory-mapped and parsed in parallel by {@link LedgerFileLoader}, which
+     * decodes every valid line into a {@link Transaction} object using {@link TransactionCodec}.
+     * Only lines with exactly five values are processed.
      * </p>
      * <p>
-     * After loading, the order of the transactions is reversed so that the newest entries
-     * appear at the top of the list.
+     * The loaded transactions are appended newest first, so the newest entries appear at
+     * the top of the list.
      * </p>
      * <p>
      * If the specified file does not exist, an error message is printed and a new file
-     * is created.
+     * is created. Rows still pending in the file's {@link LedgerWriter} or write-ahead log are folded
+     * into the file before loading.
      * </p>
      *
      * @param fileName the name of the file from which to load transactions
      * @param transactions the list to which loaded transactions will be added
      */
-    public static void loadTransactionsFromFile(String fileName, ArrayList<Transaction> transactions) {
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(CSV_DELIMITER);
-                if (values.length == 5) {
-                    transactions.add(parseTransaction(values));
-                }
+    public static void loadTransactionsFromFile(String fileName, List<Transaction> transactions) {
+        if (Files.isDirectory(Path.of(fileName))) {
+            Ledger ledger = new Ledger();
+            loadTransactionsFromFile(fileName, ledger);
+            transactions.addAll(ledger);
+            return;
+        }
+        checkpoint(fileName);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int rows = transactions.size();
+        try {
+            transactions.addAll(LedgerFileLoader.load(Path.of(fileName)));
+        } catch (IOException e) {
+            System.out.println("File Doesn't Exist, Creating...");
+            createNewFile(fileName);
+        }
+        if (Metrics.ENABLED) Metrics.LOAD.record(System.nanoTime() - start, transactions.size() - rows);
+    }
+
+    /**
+     * Loads transactions from a specified CSV file straight into the columns of a {@link Ledger}.
+     * <p>
+     * Unlike {@link #loadTransactionsFromFile(String, List)}, no {@link Transaction} records are
+     * created while loading. The rows are appended in file order, which the ledger presents newest first.
+     * </p>
+     * <p>
+     * When {@link TrackerConfig#SNAPSHOT} is enabled, the ledger is loaded through a
+     * {@link LedgerSnapshotFile}, so only the rows appended since the snapshot was written are parsed.
+     * </p>
+     * <p>
+     * If the name is a directory, every partition of the {@link PartitionedLedger} it holds is loaded.
+     * </p>
+     * <p>
+     * If the specified file does not exist, an error message is printed and a new file
+     * is created.
+     * </p>
+     *
+     * @param fileName the name of the file from which to load transactions
+     * @param ledger the ledger to which loaded transactions will be added
+     * @return the number of bytes of the file loaded, to pass on to {@link #followFile(String, Ledger, long)}
+     */
+    public static long loadTransactionsFromFile(String fileName, Ledger ledger) {
+        if (Files.isDirectory(Path.of(fileName))) {
+            PartitionedLedger partitions = openPartitions(fileName);
+            if (partitions != null) partitions.loadAll(ledger);
+            return 0;
+        }
+        checkpoint(fileName);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int rows = ledger.size();
+        try {
+            if (TrackerConfig.SNAPSHOT) {
+                return LedgerSnapshotFile.load(Path.of(fileName), ledger, TrackerConfig.SNAPSHOT_REBUILD_BYTES,
+                        TrackerConfig.SNAPSHOT_VERIFY);
             }
-            // Reverse load order so the newest entries are displayed at the top
-            Collections.reverse(transactions);
+            long size = Files.size(Path.of(fileName));
+            LedgerFileLoader.load(Path.of(fileName), ledger, 0, size);
+            return size;
+        } catch (IOException e) {
+            System.out.println("File Doesn't Exist, Creating...");
+            createNewFile(fileName);
+            return 0;
+        } finally {
+            if (Metrics.ENABLED) Metrics.LOAD.record(System.nanoTime() - start, ledger.size() - rows);
+        }
+    }
+
+    /**
+     * Loads transactions from a specified CSV file into the ledger of a {@link LedgerStore}, as a single write.
+     * <p>
+     * When {@link TrackerConfig#LAZY} is enabled, the file is only scanned into a {@link LineIndex} of row
+     * offsets and dates, and the store loads the rows when they are first needed, see
+     * {@link LedgerStore#loadLazily(LineIndex)}. Date range reports opened before then decode only the
+     * rows of their range.
+     * </p>
+     * <p>
+     * If the name is a directory, it is opened as a {@link PartitionedLedger} and loaded lazily the same
+     * way, so date range reports read only the partitions that overlap their range.
+     * </p>
+     *
+     * @param fileName the name of the file from which to load transactions
+     * @param store the store to which loaded transactions will be added
+     * @return the number of bytes of the file loaded, to pass on to {@link #followFile(String, LedgerStore, long)}
+     * @see #loadTransactionsFromFile(String, Ledger)
+     */
+    public static long loadTransactionsFromFile(String fileName, LedgerStore store) {
+        if (Files.isDirectory(Path.of(fileName))) {
+            PartitionedLedger partitions = openPartitions(fileName);
+            if (partitions != null) store.loadLazily(partitions);
+            return 0;
+        }
+        if (TrackerConfig.LAZY) return indexTransactionsFromFile(fileName, store);
+        return store.write(ledger -> loadTransactionsFromFile(fileName, ledger));
+    }
 
+    private static long indexTransactionsFromFile(String fileName, LedgerStore store) {
+        checkpoint(fileName);
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        try {
+            LineIndex index = LineIndex.build(Path.of(fileName), TrackerConfig.LAZY_CACHE_ROWS);
+            store.loadLazily(index);
+            if (Metrics.ENABLED) Metrics.LOAD.record(System.nanoTime() - start, index.size());
+            return index.dataSize();
         } catch (IOException e) {
             System.out.println("File Doesn't Exist, Creating...");
             createNewFile(fileName);
+            return 0;
+        }
+    }
+
+    /**
+     * Starts following a data file, so rows appended to it by other processes are merged into a store.
+     * <p>
+     * The file is watched by a {@link LedgerTail}, which only parses the bytes past those already loaded.
+     * The rows are merged by {@link #pollFollowedFiles()}, so the menus pick them up between screens while
+     * a table already on screen keeps showing its snapshot. Rows this session writes to the file itself
+     * are not merged a second time. Partitioned directories are not followed.
+     * </p>
+     *
+     * @param fileName    the name of the file to follow
+     * @param store       the store the file was loaded into
+     * @param loadedBytes the number of bytes of the file already loaded, as returned by
+     *                    {@link #loadTransactionsFromFile(String, LedgerStore)}
+     */
+    public static void followFile(String fileName, LedgerStore store, long loadedBytes) {
+        Path path = Path.of(fileName).toAbsolutePath().normalize();
+        if (Files.isDirectory(path)) return;
+        try {
+            LedgerTail tail = new LedgerTail(path, store, loadedBytes, TrackerConfig.TAIL_SETTLE_MILLIS);
+            tail.start();
+            LedgerTail previous = TAILS.put(path, tail);
+            if (previous != null) previous.close();
+            LedgerWriter writer = WRITERS.get(path);
+            if (writer != null) writer.setFoldListener(tail::skip);
+        } catch (IOException e) {
+            System.out.println("Error Following File " + fileName + " " + e);
+        }
+    }
+
+    /**
+     * Merges the rows appended to every followed file since the last poll.
+     * <p>
+     * If a followed file was truncated, replaced or rewritten, its ledger is reloaded from scratch, after
+     * the rows still pending for the file have been written to it.
+     * </p>
+     */
+    public static void pollFollowedFiles() {
+        for (Map.Entry<Path, LedgerTail> entry : TAILS.entrySet()) {
+            String fileName = entry.getKey().toString();
+            try {
+                LedgerTail.Update update = entry.getValue().poll(() -> checkpoint(fileName));
+                if (update.reloaded()) {
+                    System.out.println("\nReloaded Changed File " + entry.getKey().getFileName());
+                } else if (update.rowsAdded() > 0) {
+                    System.out.println("\nLoaded " + update.rowsAdded() + " New Transactions From " + entry.getKey().getFileName());
+                }
+            } catch (IOException | RuntimeException e) {
+                // A row the decoder rejects is reported, and read again once the file changes
+                System.out.println("Error Reading File " + fileName + " " + e);
+            }
         }
     }
 
@@ -59,45 +207,34 @@ public class TransactionManager {
      * and is also written to the specified target file.
      * </p>
      *
-     * @param transactions an {@link ArrayList} to which the new transaction will be added
+     * @param transactions a {@link List}, such as a {@link Ledger}, to which the new transaction will be added
      * @param targetFileName the name of the file to which the transaction will be saved
      */
-    public static void addNewTransaction(Transaction t, ArrayList<Transaction> transactions, String targetFileName) {
+    public static void addNewTransaction(Transaction t, List<Transaction> transactions, String targetFileName) {
         // Add the new transaction to the array
         transactions.add(0,t);
-        System.out.println(t.amount()>0 ? "Payment added successfully.\n" : "Deposit added successfully.\n");
+        System.out.println(t.cents()>0 ? "Payment added successfully.\n" : "Deposit added successfully.\n");
 
         // Add the transaction to data file
         writeToFile(t,targetFileName);
     }
 
     /**
-     * Parses an array of string values into a {@link Transaction} object.
-     * <p>
-     * The input array must contain the following elements in the specified order:
-     * <ul>
-     *     <li>0: Date in the format recognized by {@link LocalDate}</li>
-     *     <li>1: Time in the format recognized by {@link LocalTime}</li>
-     *     <li>2: Description of the transaction</li>
-     *     <li>3: Vendor associated with the transaction</li>
-     *     <li>4: Amount as a string that can be parsed into a double</li>
-     * </ul>
-     * </p>
+     * Adds a new transaction to a {@link LedgerStore} and initiates writing it to file.
      * <p>
-     * The method trims whitespace from each input value and parses the date,
-     * time, and amount accordingly.
+     * The transaction is appended as a single write to the store, so reports running on earlier
+     * snapshots are neither blocked nor affected.
      * </p>
      *
-     * @param values an array of string values representing the transaction details
-     * @return a {@link Transaction} object populated with the parsed values
+     * @param t the {@link Transaction} to add
+     * @param store the {@link LedgerStore} to which the new transaction will be added
+     * @param targetFileName the name of the file to which the transaction will be saved
      */
-    private static Transaction parseTransaction(String[] values){
-        LocalDate date = LocalDate.parse(values[0].trim());
-        LocalTime time = LocalTime.parse(values[1].trim());
-        String description = values[2].trim();
-        String vendor = values[3].trim();
-        double amount = Double.parseDouble(values[4].trim());
-        return new Transaction(date,time,description,vendor,amount);
+    public static void addNewTransaction(Transaction t, LedgerStore store, String targetFileName) {
+        store.append(t);
+        System.out.println(t.cents()>0 ? "Payment added successfully.\n" : "Deposit added successfully.\n");
+
+        writeToFile(t,targetFileName);
     }
 
     /**
@@ -127,12 +264,55 @@ public class TransactionManager {
         }
     }
 
+    /**
+     * Flushes every pending row, folds every write-ahead log into its data file and closes all
+     * open {@link LedgerWriter}s.
+     * <p>
+     * This is called when the application exits, so no buffered row is lost. Writers are reopened
+     * on demand if transactions are added afterwards. Followed files stop being followed, and the
+     * manifests of partitioned directories are written, after which the directories are opened again
+     * on their next use.
+     * </p>
+     */
+    public static void closeWriters() {
+        for (Path path : TAILS.keySet()) {
+            LedgerTail tail = TAILS.remove(path);
+            if (tail == null) continue;
+            try {
+                tail.close();
+            } catch (IOException e) {
+                System.out.println("Error Closing File " + path + " " + e);
+            }
+        }
+        for (Path path : WRITERS.keySet()) {
+            LedgerWriter writer = WRITERS.remove(path);
+            if (writer == null) continue;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.out.println("Error Writing To File " + path + " " + e);
+            }
+        }
+        for (Path directory : PARTITIONS.keySet()) {
+            PartitionedLedger partitions = PARTITIONS.remove(directory);
+            if (partitions == null) continue;
+            try {
+                partitions.flushManifest();
+            } catch (IOException e) {
+                System.out.println("Error Writing Manifest For " + directory + " " + e);
+            }
+        }
+    }
+
     /**
      * Writes a {@link Transaction} object to a specified file.
      * <p>
-     * The transaction is appended to the file in text format as defined by the
-     * {@link Transaction#toString()} method. If the file does not exist, it will
-     * be created.
+     * The transaction is handed to the file's long-lived {@link LedgerWriter}, which records it in the
+     * file's {@link WriteAheadLog} as part of a group commit and later folds it into the file in the
+     * same text format as {@link Transaction#toString()}. When the call returns depends on the
+     * configured {@link TrackerConfig#DURABILITY}. If the file does not exist, it will be created.
+     * If the target is a partitioned directory, the transaction is written to the partition of its date,
+     * see {@link PartitionedLedger#append(Transaction)}.
      * </p>
      * <p>
      * If an error occurs during the writing process, an error message is printed
@@ -143,10 +323,96 @@ public class TransactionManager {
      * @param targetFileName the name of the file where the transaction will be saved
      */
     private static void writeToFile(Transaction transactionToAdd, String targetFileName) {
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(targetFileName, true))){
-            bufferedWriter.write(transactionToAdd.toString());
+        try {
+            appendToFile(transactionToAdd, targetFileName);
         } catch (Exception e) {
             System.out.println("Error Writing To File " + targetFileName + " " + e);
         }
     }
+
+    /**
+     * Writes a {@link Transaction} object to a specified file or partitioned directory, as
+     * {@link #writeToFile(Transaction, String)} does, but lets a failure propagate to the caller
+     * instead of printing it, for callers without a console such as {@link LedgerServer}.
+     *
+     * @param transactionToAdd the {@link Transaction} object to be written to the file
+     * @param targetFileName the name of the file or directory where the transaction will be saved
+     * @throws IOException if the transaction could not be written
+     */
+    public static void appendToFile(Transaction transactionToAdd, String targetFileName) throws IOException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        String fileName = targetFileName;
+        if (Files.isDirectory(Path.of(targetFileName))) {
+            fileName = partitionsFor(targetFileName).append(transactionToAdd).toString();
+        }
+        writerFor(fileName).append(transactionToAdd);
+        if (Metrics.ENABLED) Metrics.APPEND.record(System.nanoTime() - start, 1);
+    }
+
+    /**
+     * Opens a partitioned directory afresh, after folding every partition's pending rows into its file
+     * and writing the manifest of the previous opening, so no partition has to be scanned again.
+     *
+     * @return the partitioned ledger, or {@code null} if the directory cannot be read
+     */
+    private static PartitionedLedger openPartitions(String directoryName) {
+        Path directory = Path.of(directoryName).toAbsolutePath().normalize();
+        try {
+            for (Path file : PartitionedLedger.partitionFiles(directory)) checkpoint(file.toString());
+            PartitionedLedger previous = PARTITIONS.get(directory);
+            if (previous != null) previous.flushManifest();
+            PartitionedLedger partitions = PartitionedLedger.open(directory);
+            PARTITIONS.put(directory, partitions);
+            return partitions;
+        } catch (IOException e) {
+            System.out.println("Error Reading Partitions " + directoryName + " " + e);
+            return null;
+        }
+    }
+
+    private static PartitionedLedger partitionsFor(String directoryName) throws IOException {
+        PartitionedLedger partitions = PARTITIONS.get(Path.of(directoryName).toAbsolutePath().normalize());
+        if (partitions == null) partitions = openPartitions(directoryName);
+        if (partitions == null) throw new IOException("Cannot Open Partitions " + directoryName);
+        return partitions;
+    }
+
+    private static LedgerWriter writerFor(String fileName) throws IOException {
+        Path path = Path.of(fileName).toAbsolutePath().normalize();
+        LedgerWriter writer = WRITERS.get(path);
+        if (writer != null) return writer;
+
+        synchronized (WRITERS) {
+            writer = WRITERS.get(path);
+            if (writer == null) {
+                writer = new LedgerWriter(path, TrackerConfig.DURABILITY, TrackerConfig.WRITE_BATCH_BYTES,
+                        TrackerConfig.WRITE_MAX_DELAY_MILLIS);
+                LedgerTail tail = TAILS.get(path);
+                if (tail != null) writer.setFoldListener(tail::skip);
+                WRITERS.put(path, writer);
+            }
+            return writer;
+        }
+    }
+
+    /**
+     * Makes sure every appended row of a data file has reached the file itself.
+     * <p>
+     * If the file has an open {@link LedgerWriter}, its pending rows are flushed and its write-ahead
+     * log is folded into the file. Otherwise any log left behind by a crashed session is recovered.
+     * </p>
+     */
+    private static void checkpoint(String fileName) {
+        Path path = Path.of(fileName).toAbsolutePath().normalize();
+        try {
+            LedgerWriter writer = WRITERS.get(path);
+            if (writer != null) {
+                writer.checkpoint();
+            } else if (WriteAheadLog.recover(path) > 0) {
+                System.out.println("Recovered Unsaved Transactions For " + fileName);
+            }
+        } catch (IOException e) {
+            System.out.println("Error Recovering File " + fileName + " " + e);
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package com.pluralsight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-folded trigram index over the entries of a {@link StringDictionary}, used for
+ * case-insensitive substring search.
+ * <p>
+ * Every entry is lowercased once and each run of three consecutive characters is recorded in a
+ * posting list of dictionary ids. A query intersects the posting lists of its own trigrams, smallest
+ * first, and only the surviving candidates are verified with {@link String#contains}. Because the
+ * ledger columns store dictionary ids, the resulting bitmap can be tested per row in O(1).
+ * </p>
+ * <p>
+ * The index follows the dictionary as it grows: {@link #update()} indexes every entry added since
+ * the previous call and returns immediately when there is nothing new.
+ * </p>
+ * <p>
+ * Ids are only ever appended to a posting list, in increasing order, so a {@link #snapshot(StringDictionary)}
+ * shares the posting lists and the folded values with the index and only records how many entries were
+ * indexed. It reads every list up to the first id past that count, while the index keeps appending.
+ * </p>
+ */
+public class TrigramIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final StringDictionary dictionary;
+    private final Map<Long, Posting> postings;
+    private String[] foldedValues;
+    private int indexed;
+
+    public TrigramIndex(StringDictionary dictionary) {
+        this(dictionary, new ConcurrentHashMap<>(), new String[INITIAL_CAPACITY], 0);
+    }
+
+    private TrigramIndex(StringDictionary dictionary, Map<Long, Posting> postings, String[] foldedValues, int indexed) {
+        this.dictionary = dictionary;
+        this.postings = postings;
+        this.foldedValues = foldedValues;
+        this.indexed = indexed;
+    }
+
+    /**
+     * Indexes every dictionary entry added since the last update.
+     */
+    public void update() {
+        for (int id = indexed; id < dictionary.size(); id++) {
+            String folded = dictionary.get(id).toLowerCase();
+            if (id == foldedValues.length) foldedValues = Arrays.copyOf(foldedValues, id * 2);
+            foldedValues[id] = folded;
+            for (int i = 0; i + GRAM_LENGTH <= folded.length(); i++) {
+                postings.computeIfAbsent(gram(folded, i), key -> new Posting()).add(id);
+            }
+            indexed = id + 1;
+        }
+    }
+
+    /**
+     * Creates a read-only view of the index over a snapshot of its dictionary, such as the dictionary of
+     * a ledger snapshot.
+     *
+     * @param dictionary the snapshot of the indexed dictionary
+     * @return the snapshot of the index, up to date with the dictionary
+     */
+    public TrigramIndex snapshot(StringDictionary dictionary) {
+        update();
+        return new TrigramIndex(dictionary, postings, foldedValues, indexed);
+    }
+
+    /**
+     * Finds every dictionary entry containing the query, ignoring case.
+     * <p>
+     * Queries shorter than a trigram cannot be narrowed down by the index, so every entry is verified.
+     * </p>
+     *
+     * @param query the substring to search for
+     * @return a bitmap of the ids of the matching dictionary entries
+     */
+    public BitSet matching(String query) {
+        update();
+        String foldedQuery = query.toLowerCase();
+
+        BitSet candidates = candidates(foldedQuery);
+        BitSet matches = new BitSet(indexed);
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            if (foldedValues[id].contains(foldedQuery)) matches.set(id);
+        }
+        return matches;
+    }
+
+    /**
+     * Intersects the posting lists of every trigram in the query, starting with the smallest.
+     */
+    private BitSet candidates(String foldedQuery) {
+        if (foldedQuery.length() < GRAM_LENGTH) {
+            BitSet all = new BitSet(indexed);
+            all.set(0, indexed);
+            return all;
+        }
+
+        List<Posting> queryPostings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= foldedQuery.length(); i++) {
+            Posting posting = postings.get(gram(foldedQuery, i));
+            if (posting == null) return new BitSet();
+            queryPostings.add(posting);
+        }
+        queryPostings.sort((first, second) -> Integer.compare(first.countBelow(indexed), second.countBelow(indexed)));
+
+        BitSet candidates = queryPostings.get(0).below(indexed);
+        for (int i = 1; i < queryPostings.size() && !candidates.isEmpty(); i++) {
+            Posting posting = queryPostings.get(i);
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                if (!posting.contains(id)) candidates.clear(id);
+            }
+        }
+        return candidates;
+    }
+
+    private static long gram(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    /**
+     * Ascending ids of the entries containing one trigram, appended by a single writer and readable
+     * by snapshots meanwhile.
+     * <p>
+     * A reader reads the count before the array, so it always sees at least as many written ids as the
+     * count says, and growing the list copies it into a new array, leaving the one being read intact.
+     * </p>
+     */
+    private static class Posting {
+        private volatile int[] ids = new int[4];
+        private volatile int count;
+
+        void add(int id) {
+            int[] current = ids;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+                ids = current;
+            }
+            current[count] = id;
+            count = count + 1;
+        }
+
+        /**
+         * Returns the number of ids below a limit, such as the number of entries a snapshot knows.
+         */
+        int countBelow(int limit) {
+            int size = count;
+            int index = Arrays.binarySearch(ids, 0, size, limit);
+            return (index >= 0) ? index : -index - 1;
+        }
+
+        BitSet below(int limit) {
+            int size = count;
+            int[] current = ids;
+            BitSet bits = new BitSet(limit);
+            for (int i = 0; i < size && current[i] < limit; i++) bits.set(current[i]);
+            return bits;
+        }
+
+        boolean contains(int id) {
+            int size = count;
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
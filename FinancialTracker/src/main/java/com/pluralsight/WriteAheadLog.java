@@ -0,0 +1,211 @@
+package com.pluralsight;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log kept next to a data file, holding appended rows until they are folded into it.
+ * <p>
+ * The log starts with a header recording the length of the data file when the log was created.
+ * Every appended row follows as a record made of its length, the CRC32 of its bytes, and the
+ * encoded row itself. A record is complete once its full length has been written, so a crash
+ * can at worst leave one partial record at the end of the log, which recovery detects and drops.
+ * </p>
+ * <p>
+ * Folding appends the rows of every complete record to the data file and deletes the log.
+ * Before appending, the bytes of the data file after the recorded length are compared with the
+ * rows of the log, so a fold that was interrupted by a crash is completed rather than repeated.
+ * Because the log is folded regularly, recovery only ever replays the short tail of rows that
+ * were appended since the last fold.
+ * </p>
+ */
+public class WriteAheadLog {
+    static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAGIC = 0x4654574C;     // "FTWL"
+    private static final int VERSION = 1;
+    private static final String LOG_SUFFIX = ".wal";
+
+    /**
+     * Receives the range of the data file a fold is about to append, before the bytes are written.
+     */
+    @FunctionalInterface
+    public interface FoldListener {
+        /**
+         * @param offset the data file offset at which the folded rows start
+         * @param length the number of bytes appended
+         */
+        void folding(long offset, long length);
+    }
+
+    /**
+     * Returns the path of the log belonging to a data file.
+     *
+     * @param dataFile the data file
+     * @return the path of its write-ahead log
+     */
+    public static Path logPath(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + LOG_SUFFIX);
+    }
+
+    /**
+     * Creates a new, empty log for a data file and opens it for appending.
+     *
+     * @param dataFile the data file the log belongs to
+     * @return a readable and writable channel positioned after the log header
+     * @throws IOException if the log cannot be created
+     */
+    public static FileChannel create(Path dataFile) throws IOException {
+        long dataLength = Files.exists(dataFile) ? Files.size(dataFile) : 0;
+        FileChannel log = FileChannel.open(logPath(dataFile), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(dataLength).flip();
+        while (header.hasRemaining()) log.write(header);
+        return log;
+    }
+
+    /**
+     * Encodes a transaction as a log record and appends it to a buffer.
+     *
+     * @param t       the transaction to append
+     * @param records the buffer collecting pending records
+     * @param scratch an encoder used to encode the row on its own
+     */
+    public static void appendRecord(Transaction t, TransactionCodec.Encoder records, TransactionCodec.Encoder scratch) {
+        CRC32 crc = new CRC32();
+        crc.update(scratch.encode(t).asByteBuffer());
+        records.appendInt(scratch.length()).appendInt((int) crc.getValue()).append(scratch);
+    }
+
+    /**
+     * Recovers the log of a data file, if one exists, by folding every complete record into the
+     * data file and deleting the log.
+     * <p>
+     * Records are replayed in order until the end of the log or the first record that is partial
+     * or fails its checksum. The log is truncated to the last complete record before folding, so
+     * a torn record never reaches the data file.
+     * </p>
+     *
+     * @param dataFile the data file whose log is recovered
+     * @return the number of records folded into the data file
+     * @throws IOException if the log or the data file cannot be read or written
+     */
+    public static int recover(Path dataFile) throws IOException {
+        Path logFile = logPath(dataFile);
+        if (!Files.exists(logFile)) return 0;
+
+        int recordCount;
+        try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            recordCount = fold(dataFile, log);
+        }
+        Files.delete(logFile);
+        return recordCount;
+    }
+
+    /**
+     * Folds every complete record of an open log into the data file. The caller deletes the log afterwards.
+     *
+     * @param dataFile the data file the rows are appended to
+     * @param log      the open log, readable and writable
+     * @return the number of records folded into the data file
+     * @throws IOException if the log or the data file cannot be read or written
+     */
+    static int fold(Path dataFile, FileChannel log) throws IOException {
+        return fold(dataFile, log, null);
+    }
+
+    /**
+     * Folds every complete record of an open log into the data file, announcing the appended range
+     * to a listener first. The caller deletes the log afterwards.
+     *
+     * @param dataFile the data file the rows are appended to
+     * @param log      the open log, readable and writable
+     * @param listener the {@link FoldListener} told about the appended range, or {@code null}
+     * @return the number of records folded into the data file
+     * @throws IOException if the log or the data file cannot be read or written
+     */
+    static int fold(Path dataFile, FileChannel log, FoldListener listener) throws IOException {
+        long logSize = log.size();
+        if (logSize < HEADER_SIZE) return 0;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(log, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Unrecognized write-ahead log " + logPath(dataFile));
+        }
+        long baseOffset = header.getLong();
+
+        // Replay records until the end of the log or the first torn or corrupt record
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        long position = HEADER_SIZE;
+        int recordCount = 0;
+        while (position + RECORD_HEADER_SIZE <= logSize) {
+            recordHeader.clear();
+            readFully(log, recordHeader, position);
+            int length = recordHeader.getInt(0);
+            int checksum = recordHeader.getInt(4);
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > logSize) break;
+
+            ByteBuffer row = ByteBuffer.allocate(length);
+            readFully(log, row, position + RECORD_HEADER_SIZE);
+            crc.reset();
+            crc.update(row.array(), 0, length);
+            if ((int) crc.getValue() != checksum) break;
+
+            rows.write(row.array(), 0, length);
+            position += RECORD_HEADER_SIZE + length;
+            recordCount++;
+        }
+        if (position < logSize) {
+            log.truncate(position);
+            log.force(false);
+        }
+        if (recordCount == 0) return 0;
+
+        appendMissing(dataFile, baseOffset, rows.toByteArray(), listener);
+        return recordCount;
+    }
+
+    /**
+     * Appends the part of the logged rows that the data file does not already hold after the base offset.
+     */
+    private static void appendMissing(Path dataFile, long baseOffset, byte[] rows, FoldListener listener)
+            throws IOException {
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long dataSize = data.size();
+            int alreadyFolded = 0;
+            if (dataSize > baseOffset) {
+                int overlap = (int) Math.min(dataSize - baseOffset, rows.length);
+                ByteBuffer existing = ByteBuffer.allocate(overlap);
+                readFully(data, existing, baseOffset);
+                if (Arrays.equals(existing.array(), 0, overlap, rows, 0, overlap)) alreadyFolded = overlap;
+            }
+
+            ByteBuffer missing = ByteBuffer.wrap(rows, alreadyFolded, rows.length - alreadyFolded);
+            if (listener != null && missing.hasRemaining()) listener.folding(dataSize, missing.remaining());
+            long position = dataSize;
+            while (missing.hasRemaining()) position += data.write(missing, position);
+            data.force(false);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new IOException("Unexpected end of file");
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchReportTest {
+    private static final LocalDate TODAY = LocalDate.of(2023, 6, 17);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void main_printsUsageForInvalidDate() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("ledger.csv"), "2023-06-01|08:00:00|Rent|Landlord|-900.00");
+        Path directory = tempDir.resolve("reports");
+
+        BatchReport.main(new String[]{"--file", file.toString(), "--out", directory.toString(), "--date", "2023-13-01", "all"});
+        assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    void main_printsUsageForUnknownReport() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("ledger.csv"), "2023-06-01|08:00:00|Rent|Landlord|-900.00");
+        Path directory = tempDir.resolve("reports");
+
+        BatchReport.main(new String[]{"--file", file.toString(), "--out", directory.toString(), "all", "weekly"});
+        assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    void run_routesRowsToEveryMatchingReport() throws Exception {
+        Ledger ledger = generatedLedger();
+        List<ReportDefinition> reports = List.of(ReportDefinition.monthToDate(TODAY), ReportDefinition.previousMonth(TODAY),
+                ReportDefinition.yearToDate(TODAY), ReportDefinition.previousYear(TODAY),
+                ReportDefinition.parse("vendor=market", TODAY), ReportDefinition.parse("vendor=no such vendor", TODAY),
+                ReportDefinition.payments());
+
+        List<List<Integer>> routed = new ArrayList<>();
+        reports.forEach(report -> routed.add(new ArrayList<>()));
+        Rollups.Summary[] summaries = BatchReport.run(ledger, reports, (report, row) -> routed.get(report).add(row));
+
+        for (int i = 0; i < reports.size(); i++) {
+            RowQuery query = reports.get(i).query();
+            List<Integer> expected = new ArrayList<>();
+            RowCursor cursor = QueryPlanner.plan(ledger, query).cursor(ScanMode.SEQUENTIAL);
+            for (int row = cursor.next(); row >= 0; row = cursor.next()) expected.add(row);
+            assertEquals(expected, routed.get(i), reports.get(i).name());
+
+            if (query.vendor() == null && query.startDate() != null) {
+                assertEquals(ledger.rollups().range(query.startDate(), query.endDate()), summaries[i]);
+            }
+        }
+        assertTrue(routed.get(5).isEmpty());
+    }
+
+    @Test
+    void writeReports_writesLoadableDataFiles() throws Exception {
+        Ledger ledger = generatedLedger();
+        List<ReportDefinition> reports = List.of(ReportDefinition.previousMonth(TODAY), ReportDefinition.parse("vendor=Gas", TODAY));
+
+        Rollups.Summary[] summaries = BatchReport.writeReports(ledger, reports, tempDir.resolve("reports"));
+
+        for (int i = 0; i < reports.size(); i++) {
+            Ledger report = new Ledger();
+            LedgerFileLoader.load(tempDir.resolve("reports").resolve(reports.get(i).name() + ".csv"), report);
+            assertEquals(summaries[i], report.rollups().range(null, null));
+            assertTrue(report.rowCount() > 0);
+        }
+        assertEquals("vendor-gas", reports.get(1).name());
+        Rollups.Summary[] empty = BatchReport.writeReports(ledger, List.of(ReportDefinition.vendor("No Such Vendor")),
+                tempDir.resolve("reports"));
+        assertEquals(0, empty[0].deposits().count() + empty[0].payments().count());
+        List<ReportDefinition> duplicates = List.of(ReportDefinition.vendor("Gas"), ReportDefinition.vendor("gas"));
+        assertThrows(IllegalArgumentException.class, () -> BatchReport.writeReports(ledger, duplicates, tempDir.resolve("reports")));
+        assertThrows(IllegalArgumentException.class, () -> ReportDefinition.parse("last-week", TODAY));
+    }
+
+    private Ledger generatedLedger() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        new LedgerGenerator(3, LocalDate.of(2021, 1, 1), TODAY, 60).generate(file, 20_000);
+        Ledger ledger = new Ledger();
+        LedgerFileLoader.load(file, ledger);
+        return ledger;
+    }
+}
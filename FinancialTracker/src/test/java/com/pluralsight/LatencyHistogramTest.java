@@ -0,0 +1,58 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentiles_areWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("test", "rows");
+        for (long micros = 1; micros <= 10_000; micros++) histogram.record(micros * 1000, 2, 1);
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000, histogram.percentileNanos(0.5), 5_000_000 * 0.035);
+        assertEquals(9_900_000, histogram.percentileNanos(0.99), 9_900_000 * 0.035);
+        assertEquals(10.0, histogram.getMaxMillis(), 1e-9);
+        assertEquals(20_000, histogram.getVolume());
+        assertEquals(0.5, histogram.getSelectivity(), 1e-9);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileNanos(0.5));
+    }
+
+    @Test
+    void record_countsEveryOperationFromManyThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram("test", "bytes");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) histogram.record(i, 1);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(40_000, histogram.getVolume());
+        assertEquals(9_999, histogram.percentileNanos(1.0));
+    }
+
+    @Test
+    void register_publishesHistogramsOverJmx() throws Exception {
+        Metrics.register();
+        Metrics.LOAD.record(2_000_000, 100);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue((Long) server.getAttribute(Metrics.objectName(Metrics.LOAD), "Count") >= 1);
+        assertEquals("rows", server.getAttribute(Metrics.objectName(Metrics.LOAD), "VolumeUnit"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerGeneratorTest {
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void generate_isReproducible() throws Exception {
+        Path first = tempDir.resolve("first.csv");
+        Path second = tempDir.resolve("second.csv");
+        new LedgerGenerator(7, START, END, 100).generate(first, 5_000);
+        new LedgerGenerator(7, START, END, 100).generate(second, 5_000);
+
+        assertEquals(-1, Files.mismatch(first, second));
+    }
+
+    @Test
+    void generate_writesExactRowCountInDateOrder() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        new LedgerGenerator(7, START, END, 100).generate(file, 20_000);
+
+        Ledger ledger = new Ledger();
+        LedgerFileLoader.load(file, ledger);
+        assertEquals(20_000, ledger.rowCount());
+        for (int row = 1; row < ledger.rowCount(); row++) {
+            long previous = ledger.epochDay(row - 1) * 86_400L + ledger.secondOfDay(row - 1);
+            assertTrue(previous <= ledger.epochDay(row) * 86_400L + ledger.secondOfDay(row));
+        }
+        assertEquals(START.toEpochDay(), ledger.epochDay(0));
+        assertEquals(END.toEpochDay(), ledger.epochDay(ledger.rowCount() - 1));
+        assertTrue(ledger.vendorSearch().matching("StreamFlix").cardinality() == 1);
+    }
+}
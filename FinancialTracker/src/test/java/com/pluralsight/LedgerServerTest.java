@@ -0,0 +1,120 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private LedgerStore store;
+    private LedgerServer server;
+    private Path file;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = tempDir.resolve("ledger.csv");
+        Files.copy(Path.of("transactions.csv"), file);
+        store = new LedgerStore();
+        TransactionManager.loadTransactionsFromFile(file.toString(), store);
+        server = LedgerServer.start(store, file.toString(), 0, 8, 10_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        TransactionManager.closeWriters();
+    }
+
+    @Test
+    void get_streamsMatchingRowsAsJson() throws Exception {
+        HttpResponse<String> response = get("/transactions?type=payments&vendor=company");
+        Ledger ledger = store.snapshot();
+        RowCursor cursor = QueryPlanner.plan(ledger, RowQuery.ALL.ofType(false).fromVendor("company")).cursor();
+        int expected = 0;
+        while (cursor.next() >= 0) expected++;
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertTrue(expected > 0);
+        assertTrue(response.body().endsWith("\"count\":" + expected + "}"));
+        assertTrue(response.body().contains("\"vendor\":\"The Company Store\""));
+        assertTrue(get("/transactions?limit=2").body().endsWith("\"count\":2}"));
+        assertEquals(400, get("/transactions?start=yesterday").statusCode());
+    }
+
+    @Test
+    void post_addsTransactionToStoreAndFile() throws Exception {
+        String form = "date=2030-01-02&time=09:30:00&description=Coffee+%26+Cake&vendor=Cafe&amount=-4.5";
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/transactions"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, response.statusCode());
+        assertEquals("{\"date\":\"2030-01-02\",\"time\":\"09:30:00\",\"description\":\"Coffee & Cake\",\"vendor\":\"Cafe\",\"amount\":-4.50}",
+                response.body());
+        assertTrue(get("/transactions?limit=1").body().contains("\"description\":\"Coffee & Cake\""));
+        TransactionManager.closeWriters();
+        assertTrue(Files.readString(file).endsWith("2030-01-02|09:30:00|Coffee & Cake|Cafe|-4.50"));
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder(uri("/transactions"))
+                .POST(HttpRequest.BodyPublishers.ofString("date=2030-01-02&time=09:30:00&vendor=A|B&amount=1")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+
+        HttpResponse<String> blank = client.send(HttpRequest.newBuilder(uri("/transactions"))
+                .POST(HttpRequest.BodyPublishers.ofString("date=2030-01-02&time=09:30:00&description=+&vendor=Cafe&amount=1")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, blank.statusCode());
+    }
+
+    @Test
+    void post_reportsFailedWriteWithoutAddingTransaction() throws Exception {
+        int rows = store.snapshot().size();
+        try (LedgerServer broken = LedgerServer.start(store, tempDir.resolve("missing/ledger.csv").toString(), 0, 8, 10_000)) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + broken.port() + "/transactions"))
+                    .POST(HttpRequest.BodyPublishers.ofString("date=2030-01-02&time=09:30:00&description=Coffee&vendor=Cafe&amount=1")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(500, response.statusCode());
+        }
+        assertEquals(rows, store.snapshot().size());
+    }
+
+    @Test
+    void get_servesManyConcurrentRequests() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String path = (i % 2 == 0) ? "/transactions?vendor=company" : "/summary?start=2023-01-01";
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+        assertTrue(responses.get(1).get().body().startsWith("{\"deposits\":{\"count\":"));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+}
@@ -0,0 +1,92 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerSnapshotFileTest {
+    private static final Transaction POTATOES =
+            new Transaction(LocalDate.of(2024, 10, 13), LocalTime.of(8, 10, 21), "Potatoes", "The Company Store", -1000);
+    private static final Transaction PAYCHECK =
+            new Transaction(LocalDate.of(2024, 10, 15), LocalTime.of(9, 0), "Paycheck", "Employer", 125050);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_replaysRowsAppendedAfterSnapshot() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, POTATOES.toString() + PAYCHECK);
+
+        Ledger first = new Ledger();
+        LedgerSnapshotFile.load(file, first, Long.MAX_VALUE);
+        assertTrue(Files.exists(LedgerSnapshotFile.snapshotPath(file)));
+
+        Files.writeString(file, POTATOES.toString(), StandardOpenOption.APPEND);
+        Ledger second = new Ledger();
+        LedgerSnapshotFile.load(file, second, Long.MAX_VALUE);
+
+        assertEquals(LedgerFileLoader.load(file), second);
+        assertEquals(3, second.size());
+        assertEquals(2, second.vendors().size());
+    }
+
+    @Test
+    void read_ignoresStaleSnapshot() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, POTATOES.toString() + PAYCHECK);
+        LedgerSnapshotFile.load(file, new Ledger(), Long.MAX_VALUE);
+
+        // Rewrite the data file with different rows of the same length
+        Files.writeString(file, PAYCHECK.toString() + POTATOES);
+        assertEquals(-1, LedgerSnapshotFile.read(file, new Ledger()));
+
+        Ledger ledger = new Ledger();
+        LedgerSnapshotFile.load(file, ledger, Long.MAX_VALUE);
+        assertEquals(LedgerFileLoader.load(file), ledger);
+        assertEquals(Files.size(file), LedgerSnapshotFile.read(file, new Ledger()));
+    }
+
+    @Test
+    void read_ignoresSnapshotEditedBeforeItsLastBytes() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        StringBuilder rows = new StringBuilder(POTATOES.toString());
+        while (rows.length() < 16 * 1024) rows.append(PAYCHECK);
+        Files.writeString(file, rows);
+        LedgerSnapshotFile.load(file, new Ledger(), Long.MAX_VALUE);
+
+        // Same length, different vendor in the first row only
+        Files.writeString(file, rows.toString().replaceFirst("The Company Store", "The Corner Store!"));
+        assertEquals(-1, LedgerSnapshotFile.read(file, new Ledger()));
+
+        Ledger ledger = new Ledger();
+        LedgerSnapshotFile.load(file, ledger, Long.MAX_VALUE);
+        assertEquals("The Corner Store!", ledger.get(ledger.size() - 1).vendor());
+    }
+
+    @Test
+    void read_checksEditBetweenSampledBlocksOnlyWhenVerifyingAll() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        StringBuilder rows = new StringBuilder(POTATOES.toString());
+        while (rows.length() < 256 * 1024) rows.append(PAYCHECK);
+        Files.writeString(file, rows);
+        LedgerSnapshotFile.load(file, new Ledger(), Long.MAX_VALUE);
+
+        // Same length, different vendor in one row between the first and second sampled blocks
+        int start = rows.indexOf("Employer", 8 * 1024);
+        Files.writeString(file, rows.replace(start, start + "Employer".length(), "Employee"));
+        assertTrue(LedgerSnapshotFile.read(file, new Ledger()) > 0);
+        assertEquals(-1, LedgerSnapshotFile.read(file, new Ledger(), true));
+
+        Ledger ledger = new Ledger();
+        LedgerSnapshotFile.load(file, ledger, Long.MAX_VALUE, true);
+        assertEquals(1, ledger.stream().filter(transaction -> transaction.vendor().equals("Employee")).count());
+    }
+}
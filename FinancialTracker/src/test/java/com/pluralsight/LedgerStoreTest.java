@@ -0,0 +1,92 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerStoreTest {
+
+    @Test
+    void snapshot_isUnaffectedByLaterWrites() {
+        Random random = new Random(11);
+        LedgerStore store = new LedgerStore();
+        store.write(ledger -> {
+            for (int i = 0; i < 10_000; i++) ledger.append(18_000 + i / 10, random.nextInt(86_400), "Desc", "Vendor", -100);
+            return null;
+        });
+
+        Ledger snapshot = store.snapshot();
+        assertSame(snapshot, store.snapshot());
+        List<Transaction> rows = new ArrayList<>(snapshot);
+        int[] positions = new int[snapshot.dateIndex().size()];
+        for (int position = 0; position < positions.length; position++) positions[position] = snapshot.dateIndex().row(position);
+
+        // Back-dated rows shift entries within the shared date index chunks
+        store.write(ledger -> {
+            for (int i = 0; i < 2_000; i++) ledger.append(18_000 + random.nextInt(1_100), 0, "Other", "New Vendor", 500);
+            return null;
+        });
+        store.append(new Transaction(LocalDate.of(2024, 1, 1), LocalTime.NOON, "Latest", "Vendor", 100));
+
+        assertEquals(rows, snapshot);
+        for (int position = 0; position < positions.length; position++) assertEquals(positions[position], snapshot.dateIndex().row(position));
+        assertEquals(10_000, snapshot.rollups().range(null, null).payments().count());
+        assertEquals(-1, snapshot.vendors().find("New Vendor"));
+        assertTrue(snapshot.vendorSearch().matching("new").isEmpty());
+        assertEquals(1, snapshot.vendors().size());
+        assertEquals(1, snapshot.vendorSearch().matching("vendor").cardinality());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.vendors().intern("Another Vendor"));
+
+        Ledger latest = store.snapshot();
+        assertNotSame(snapshot, latest);
+        assertEquals(12_001, latest.size());
+        assertEquals("Latest", latest.get(0).description());
+        assertThrows(UnsupportedOperationException.class, () -> latest.append(latest.get(0)));
+        assertThrows(UnsupportedOperationException.class, latest::clear);
+    }
+
+    @Test
+    void snapshot_staysConsistentWhileWriterAppends() throws Exception {
+        LedgerStore store = new LedgerStore();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(3);
+            for (int i = 0; i < 20_000; i++) {
+                int epochDay = (random.nextInt(3) == 0) ? 18_000 + random.nextInt(i / 10 + 1) : 18_000 + i / 10;
+                store.write(ledger -> ledger.append(epochDay, random.nextInt(86_400), "Desc", "Vendor " + (epochDay % 50), -100));
+            }
+            done.set(true);
+        });
+        writer.start();
+
+        int lastSize = 0;
+        while (!done.get()) {
+            Ledger snapshot = store.snapshot();
+            int size = snapshot.size();
+            assertTrue(size >= lastSize);
+            assertEquals(size, snapshot.dateIndex().size());
+            assertEquals(size, snapshot.rollups().range(null, null).payments().count());
+            // Vendors are added while the snapshot searches the shared dictionary and posting lists
+            assertEquals(snapshot.vendors().size(), snapshot.vendorSearch().matching("vendor").cardinality());
+            RowCursor cursor = QueryPlanner.plan(snapshot, RowQuery.ALL).cursor();
+            long previous = Long.MAX_VALUE;
+            int count = 0;
+            for (int row = cursor.next(); row >= 0; row = cursor.next(), count++) {
+                long key = snapshot.epochDay(row) * 86_400L + snapshot.secondOfDay(row);
+                assertTrue(key <= previous);
+                previous = key;
+            }
+            assertEquals(size, count);
+            lastSize = size;
+        }
+        writer.join();
+        assertEquals(20_000, store.snapshot().size());
+    }
+}
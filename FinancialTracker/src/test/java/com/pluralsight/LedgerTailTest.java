@@ -0,0 +1,116 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerTailTest {
+    private static final Transaction FIRST =
+            new Transaction(LocalDate.of(2024, 10, 13), LocalTime.of(8, 10, 21), "Potatoes", "The Company Store", -1000);
+    private static final Transaction SECOND =
+            new Transaction(LocalDate.of(2024, 10, 14), LocalTime.NOON, "Fuel Purchase", "Sheetz", -4295);
+    private static final Transaction BACK_DATED =
+            new Transaction(LocalDate.of(2023, 1, 2), LocalTime.NOON, "Paycheck", "The Company", 150000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void ingest_mergesOnlyAppendedRows() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, FIRST.toString());
+        LedgerStore store = new LedgerStore();
+        long loadedBytes = TransactionManager.loadTransactionsFromFile(file.toString(), store);
+        LedgerTail tail = new LedgerTail(file, store, loadedBytes, 0);
+
+        Files.writeString(file, SECOND.toString() + BACK_DATED, StandardOpenOption.APPEND);
+        LedgerTail.Update update = tail.ingest(() -> fail("No reload expected"));
+        Ledger ledger = store.snapshot();
+
+        assertEquals(new LedgerTail.Update(2, false), update);
+        assertEquals(Files.size(file), tail.offset());
+        assertEquals(BACK_DATED, ledger.get(0));
+        assertEquals(FIRST, ledger.get(2));
+        assertEquals(BACK_DATED, ledger.transaction(ledger.dateIndex().row(0)));
+        assertEquals(LedgerTail.Update.NONE, tail.ingest(() -> fail("No reload expected")));
+    }
+
+    @Test
+    void ingest_skipsRowsFoldedByOwnWriter() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, FIRST.toString());
+        LedgerStore store = new LedgerStore();
+        long loadedBytes = TransactionManager.loadTransactionsFromFile(file.toString(), store);
+        LedgerTail tail = new LedgerTail(file, store, loadedBytes, 0);
+
+        try (LedgerWriter writer = new LedgerWriter(file, DurabilityMode.FLUSH, 1 << 20, 60_000)) {
+            writer.setFoldListener(tail::skip);
+            store.append(SECOND);
+            writer.append(SECOND);
+            writer.checkpoint();
+        }
+        Files.writeString(file, BACK_DATED.toString(), StandardOpenOption.APPEND);
+
+        assertEquals(new LedgerTail.Update(1, false), tail.ingest(() -> fail("No reload expected")));
+        Ledger ledger = store.snapshot();
+        assertEquals(3, ledger.size());
+        assertEquals(BACK_DATED, ledger.get(0));
+        assertEquals(SECOND, ledger.get(1));
+    }
+
+    @Test
+    void ingest_reloadsTruncatedOrRewrittenFile() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, FIRST.toString() + SECOND);
+        LedgerStore store = new LedgerStore();
+        long loadedBytes = TransactionManager.loadTransactionsFromFile(file.toString(), store);
+        LedgerTail tail = new LedgerTail(file, store, loadedBytes, 0);
+        int[] reloads = new int[1];
+
+        Files.writeString(file, BACK_DATED.toString());
+        Ledger before = store.snapshot();
+        assertEquals(new LedgerTail.Update(-1, true), tail.ingest(() -> reloads[0]++));
+        assertEquals(1, store.snapshot().size());
+        assertEquals(BACK_DATED, store.snapshot().get(0));
+        assertEquals(SECOND, before.get(0));
+
+        // Same size, different bytes before the offset
+        Files.writeString(file, BACK_DATED.toString().replace("Paycheck", "Payroll!"));
+        assertEquals(new LedgerTail.Update(0, true), tail.ingest(() -> reloads[0]++));
+        assertEquals("Payroll!", store.snapshot().get(0).description());
+        assertEquals(2, reloads[0]);
+    }
+
+    @Test
+    void ingest_waitsForRowsStillBeingWritten() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, FIRST.toString());
+        LedgerStore store = new LedgerStore();
+        long loadedBytes = TransactionManager.loadTransactionsFromFile(file.toString(), store);
+        LedgerTail tail = new LedgerTail(file, store, loadedBytes, 0);
+        String row = SECOND.toString();
+        int split = row.indexOf("-42") + 3;
+
+        Files.writeString(file, row.substring(0, split), StandardOpenOption.APPEND);
+        assertEquals(LedgerTail.Update.NONE, tail.ingest(() -> fail("No reload expected")));
+        assertEquals(loadedBytes, tail.offset());
+
+        Files.writeString(file, row.substring(split) + System.lineSeparator() + "2024-10-15|09:00",
+                StandardOpenOption.APPEND);
+        assertEquals(new LedgerTail.Update(1, false), tail.ingest(() -> fail("No reload expected")));
+        assertEquals(SECOND, store.snapshot().get(0));
+
+        Files.writeString(file, ":00|Coffee|Sheetz|-2.50", StandardOpenOption.APPEND);
+        assertEquals(new LedgerTail.Update(1, false), tail.ingest(() -> fail("No reload expected")));
+        assertEquals(Files.size(file), tail.offset());
+        assertEquals(-250, store.snapshot().get(0).cents());
+        assertEquals(3, store.snapshot().size());
+    }
+}
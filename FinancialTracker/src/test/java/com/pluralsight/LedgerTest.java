@@ -0,0 +1,120 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerTest {
+
+    @Test
+    void load_matchesListLoader() {
+        Ledger ledger = new Ledger();
+        ArrayList<Transaction> list = new ArrayList<>();
+
+        TransactionManager.loadTransactionsFromFile("transactions.csv", ledger);
+        TransactionManager.loadTransactionsFromFile("transactions.csv", list);
+
+        assertFalse(ledger.isEmpty());
+        assertEquals(list, ledger);
+    }
+
+    @Test
+    void add_atTopBecomesNewestRow() {
+        Ledger ledger = new Ledger();
+        Transaction older = new Transaction(LocalDate.of(2024, 1, 1), LocalTime.NOON, "Fuel Purchase", "Sheetz", -4295);
+        Transaction newer = new Transaction(LocalDate.of(2024, 1, 2), LocalTime.NOON, "Fuel Purchase", "GetGo", -3824);
+
+        ledger.add(0, older);
+        ledger.add(0, newer);
+
+        assertEquals(newer, ledger.get(0));
+        assertEquals(older, ledger.get(1));
+        assertEquals(1, ledger.descriptions().size());
+        assertThrows(UnsupportedOperationException.class, () -> ledger.add(older));
+    }
+
+    @Test
+    void appendAll_remapsDictionaryIds() {
+        Ledger first = new Ledger();
+        Ledger second = new Ledger();
+        first.append(new Transaction(LocalDate.of(2024, 1, 1), LocalTime.NOON, "Potatoes", "Walmart", -300));
+        second.append(new Transaction(LocalDate.of(2024, 1, 2), LocalTime.NOON, "Rent Payment", "The Company", -100000));
+        second.append(new Transaction(LocalDate.of(2024, 1, 3), LocalTime.NOON, "Potatoes", "Walmart", -495));
+
+        first.appendAll(second);
+
+        assertEquals(3, first.rowCount());
+        assertEquals(first.vendorId(0), first.vendorId(2));
+        assertEquals("Walmart", first.transaction(2).vendor());
+        assertEquals(-495, first.cents(2));
+    }
+
+    @Test
+    void dateIndex_resolvesRangeAcrossBackDatedRows() {
+        Ledger ledger = new Ledger();
+        TransactionManager.loadTransactionsFromFile("transactions.csv", ledger);
+        int backDatedRow = ledger.append(new Transaction(LocalDate.of(2022, 5, 1), LocalTime.NOON, "Potatoes", "Walmart", -200));
+
+        DateIndex index = ledger.dateIndex();
+        int from = index.firstPositionOnOrAfter(LocalDate.of(2022, 1, 1).toEpochDay());
+        int to = index.firstPositionAfter(LocalDate.of(2022, 12, 31).toEpochDay());
+
+        assertEquals(3, to - from);
+        assertEquals(backDatedRow, index.row(from + 1));
+        for (int position = 1; position < index.size(); position++) {
+            assertTrue(ledger.epochDay(index.row(position - 1)) <= ledger.epochDay(index.row(position)));
+        }
+    }
+
+    @Test
+    void dateIndex_keepsBackDatedInsertsSortedAcrossChunks() {
+        Random random = new Random(7);
+        Ledger ledger = new Ledger();
+        for (int i = 0; i < 30_000; i++) {
+            // Mostly chronological with frequent back-dated rows, so chunks fill and split
+            int epochDay = (random.nextInt(4) == 0) ? 18_000 + random.nextInt(i / 10 + 1) : 18_000 + i / 10;
+            ledger.append(epochDay, random.nextInt(86_400), "Desc", "Vendor", -100);
+        }
+        Ledger segment = new Ledger(false);
+        for (int i = 0; i < 1_000; i++) segment.append(18_000 + random.nextInt(3_000), random.nextInt(86_400), "Desc", "Vendor", -100);
+        ledger.appendAll(segment);
+
+        Integer[] expected = new Integer[ledger.rowCount()];
+        for (int row = 0; row < expected.length; row++) expected[row] = row;
+        Arrays.sort(expected, Comparator.<Integer>comparingLong(row -> ledger.epochDay(row) * 86_400L + ledger.secondOfDay(row))
+                .thenComparingInt(row -> row));
+
+        DateIndex index = ledger.dateIndex();
+        assertFalse(index.inRowOrder());
+        assertEquals(expected.length, index.size());
+        for (int position = 0; position < expected.length; position++) assertEquals(expected[position], index.row(position));
+        for (int position = expected.length - 1; position >= 0; position -= 97) assertEquals(expected[position], index.row(position));
+
+        int from = index.firstPositionOnOrAfter(19_000);
+        assertTrue(ledger.epochDay(index.row(from)) >= 19_000 && ledger.epochDay(index.row(from - 1)) < 19_000);
+        assertEquals(index.row(index.size() - 1), QueryPlanner.plan(ledger, RowQuery.ALL).cursor().next());
+    }
+
+    @Test
+    void vendorSearch_matchesSubstringsIgnoringCase() {
+        Ledger ledger = new Ledger();
+        TransactionManager.loadTransactionsFromFile("transactions.csv", ledger);
+        StringDictionary vendors = ledger.vendors();
+
+        BitSet company = ledger.vendorSearch().matching("COMPANY");
+        BitSet shortQuery = ledger.vendorSearch().matching("oe");
+
+        assertEquals(2, company.cardinality());
+        assertTrue(company.get(vendors.find("The Company Store")));
+        assertEquals(vendors.find("Joe"), shortQuery.nextSetBit(0));
+        assertTrue(ledger.vendorSearch().matching("Costco").isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerWriterTest {
+    private static final Transaction TRANSACTION =
+            new Transaction(LocalDate.of(2024, 10, 13), LocalTime.of(8, 10, 21), "Potatoes", "The Company Store", -1000);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void append_noneModeBuffersUntilFlush() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        try (LedgerWriter writer = new LedgerWriter(file, DurabilityMode.NONE, 1 << 20, 60_000)) {
+            writer.append(TRANSACTION);
+            assertFalse(Files.exists(WriteAheadLog.logPath(file)));
+
+            writer.flush();
+            assertTrue(Files.size(WriteAheadLog.logPath(file)) > WriteAheadLog.HEADER_SIZE);
+
+            writer.checkpoint();
+            assertEquals(TRANSACTION.toString(), Files.readString(file));
+            assertFalse(Files.exists(WriteAheadLog.logPath(file)));
+        }
+    }
+
+    @Test
+    void append_flushModeWritesBeforeReturning() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        try (LedgerWriter writer = new LedgerWriter(file, DurabilityMode.FLUSH, 1 << 20, 60_000)) {
+            writer.append(TRANSACTION);
+            writer.append(TRANSACTION);
+            writer.checkpoint();
+
+            ArrayList<Transaction> loaded = LedgerFileLoader.load(file);
+            assertEquals(2, loaded.size());
+            assertEquals(TRANSACTION, loaded.get(0));
+        }
+    }
+
+    @Test
+    void close_writesPendingRows() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        LedgerWriter writer = new LedgerWriter(file, DurabilityMode.NONE, 1 << 20, 60_000);
+        writer.append(TRANSACTION);
+        writer.close();
+        writer.close();
+
+        assertEquals(TRANSACTION.toString(), Files.readString(file));
+        assertThrows(java.io.IOException.class, () -> writer.append(TRANSACTION));
+    }
+
+    @Test
+    void recover_dropsTornRecord() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, TRANSACTION.toString());
+        LedgerWriter writer = new LedgerWriter(file, DurabilityMode.FSYNC, 1 << 20, 60_000);
+        writer.append(TRANSACTION);
+        writer.append(TRANSACTION);
+
+        // Simulate a crash: tear the last record and leave the log behind without folding it
+        Path log = WriteAheadLog.logPath(file);
+        byte[] logBytes = Files.readAllBytes(log);
+        Path crashedLog = tempDir.resolve("crashed.wal");
+        Files.write(crashedLog, Arrays.copyOf(logBytes, logBytes.length - 3));
+        writer.close();
+        Files.writeString(file, TRANSACTION.toString());
+        Files.move(crashedLog, log);
+
+        assertEquals(1, WriteAheadLog.recover(file));
+        assertEquals(TRANSACTION.toString().repeat(2), Files.readString(file));
+        assertFalse(Files.exists(log));
+    }
+}
@@ -0,0 +1,84 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineIndexTest {
+    private static final String ROWS = "2023-01-05|08:00:00|Rent|Landlord|-900.00\r\n"
+            + "2023-02-01|09:00:00|Salary|The Company|2500.00\n"
+            + "not a row\n"
+            + "2023-01-20|10:00:00|Back Dated|Walmart|-12.50\n"
+            + "\n"
+            + "2023-03-02|11:00:00|Potatoes|Walmart|-3.00";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_decodesOnlyTheRowsOfTheRange() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        Ledger full = new Ledger();
+        LedgerFileLoader.load(file, full);
+
+        LineIndex index = LineIndex.build(file, 100);
+        Ledger january = index.load(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31));
+
+        assertEquals(4, index.size());
+        assertEquals(Files.size(file), index.dataSize());
+        List<Transaction> expected = new ArrayList<>();
+        for (Transaction t : full) if (t.date().getMonthValue() == 1) expected.add(t);
+        assertEquals(expected, new ArrayList<>(january));
+        assertEquals(new ArrayList<>(full), new ArrayList<>(index.load(null, null)));
+        assertEquals(0, index.load(LocalDate.of(2024, 1, 1), null).size());
+    }
+
+    @Test
+    void load_servesCachedRowsWithoutReadingTheFile() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        LineIndex cached = LineIndex.build(file, 100);
+        LineIndex uncached = LineIndex.build(file, 0);
+        LocalDate start = LocalDate.of(2023, 2, 1);
+        Ledger first = cached.load(start, null);
+        uncached.load(start, null);
+
+        Files.writeString(file, "");
+
+        assertEquals(new ArrayList<>(first), new ArrayList<>(cached.load(start, null)));
+        assertThrows(UncheckedIOException.class, () -> uncached.load(start, null));
+    }
+
+    @Test
+    void store_loadsInFullOnlyWhenNeeded() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        LedgerStore store = new LedgerStore();
+        store.loadLazily(LineIndex.build(file, 100));
+
+        assertEquals(1, store.snapshot(LocalDate.of(2023, 3, 1), null).size());
+        assertTrue(store.isPending());
+
+        store.append(new Transaction(LocalDate.of(2023, 4, 1), LocalTime.NOON, "Latest", "Vendor", 100));
+        assertTrue(store.isPending());
+        assertEquals("Latest", store.snapshot(LocalDate.of(2023, 4, 1), null).get(0).description());
+        assertEquals(2, store.snapshot(LocalDate.of(2023, 3, 1), null).size());
+
+        Ledger full = store.snapshot(null, null);
+        assertFalse(store.isPending());
+        assertSame(full, store.snapshot());
+        assertEquals(5, full.size());
+        assertEquals("Latest", full.get(0).description());
+        assertEquals("Rent", full.get(4).description());
+    }
+}
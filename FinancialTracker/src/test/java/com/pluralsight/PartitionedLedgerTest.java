@@ -0,0 +1,132 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedLedgerTest {
+    private static final String ROWS = "2023-01-05|08:00:00|Rent|Landlord|-900.00\n"
+            + "2023-02-01|09:00:00|Salary|The Company|2500.00\n"
+            + "2023-01-20|10:00:00|Back Dated|Walmart|-12.50\n"
+            + "2023-03-02|11:00:00|Potatoes|Walmart|-3.00";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TransactionManager.closeWriters();
+    }
+
+    @Test
+    void migrate_splitsRowsByMonthWithManifest() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        Path directory = tempDir.resolve("partitions");
+
+        PartitionedLedger migrated = PartitionedLedger.migrate(file, directory, PartitionedLedger.Granularity.MONTH);
+        List<PartitionedLedger.Partition> partitions = new ArrayList<>(migrated.partitions());
+
+        assertEquals(List.of("2023-01", "2023-02", "2023-03"), partitions.stream().map(PartitionedLedger.Partition::name).toList());
+        PartitionedLedger.Partition january = partitions.get(0);
+        assertEquals(LocalDate.of(2023, 1, 5), january.firstDate());
+        assertEquals(LocalDate.of(2023, 1, 20), january.lastDate());
+        assertEquals(2, january.rows());
+        assertEquals(-91_250, january.paymentCents());
+        assertEquals(Files.size(directory.resolve("2023-01.csv")), january.bytes());
+        assertEquals(partitions, new ArrayList<>(PartitionedLedger.open(directory).partitions()));
+        assertThrows(Exception.class, () -> PartitionedLedger.migrate(file, directory, PartitionedLedger.Granularity.YEAR));
+
+        Ledger expected = new Ledger();
+        LedgerFileLoader.load(file, expected);
+        Ledger loaded = new Ledger();
+        migrated.loadAll(loaded);
+        Comparator<Transaction> byDate = Comparator.comparing(Transaction::date).thenComparing(Transaction::time);
+        List<Transaction> expectedRows = new ArrayList<>(expected);
+        List<Transaction> loadedRows = new ArrayList<>(loaded);
+        expectedRows.sort(byDate);
+        loadedRows.sort(byDate);
+        assertEquals(expectedRows, loadedRows);
+    }
+
+    @Test
+    void load_opensOnlyOverlappingPartitions() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        Path directory = tempDir.resolve("partitions");
+        PartitionedLedger.migrate(file, directory, PartitionedLedger.Granularity.MONTH);
+        PartitionedLedger partitioned = PartitionedLedger.open(directory);
+
+        // A cold partition that is read would fail the load
+        Files.delete(directory.resolve("2023-01.csv"));
+
+        Ledger march = partitioned.load(LocalDate.of(2023, 3, 1), null);
+        assertEquals(1, march.size());
+        assertEquals("Potatoes", march.get(0).description());
+        assertEquals(1, partitioned.load(LocalDate.of(2023, 1, 21), LocalDate.of(2023, 2, 28)).size());
+        assertThrows(UncheckedIOException.class, () -> partitioned.load(null, LocalDate.of(2023, 1, 31)));
+    }
+
+    @Test
+    void append_writesToThePartitionOfItsDate() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        Path directory = tempDir.resolve("partitions");
+        PartitionedLedger.migrate(file, directory, PartitionedLedger.Granularity.YEAR);
+        LedgerStore store = new LedgerStore();
+        TransactionManager.loadTransactionsFromFile(directory.toString(), store);
+
+        TransactionManager.addNewTransaction(new Transaction(LocalDate.of(2024, 6, 1), LocalTime.NOON, "Latest", "Vendor", 100),
+                store, directory.toString());
+        assertTrue(store.isPending());
+        assertEquals(1, store.snapshot(LocalDate.of(2024, 1, 1), null).size());
+        Path manifest = directory.resolve(PartitionedLedger.MANIFEST_NAME);
+        assertFalse(Files.readString(manifest).contains("2024|"));
+        TransactionManager.closeWriters();
+        assertTrue(Files.readString(manifest).contains("2024|2024-06-01|2024-06-01|1|1.00|0.00|"));
+
+        assertTrue(Files.readString(directory.resolve("2024.csv")).endsWith("2024-06-01|12:00:00|Latest|Vendor|1.00"));
+        List<PartitionedLedger.Partition> partitions = new ArrayList<>(PartitionedLedger.open(directory).partitions());
+        assertEquals(2, partitions.size());
+        assertEquals(Files.size(directory.resolve("2024.csv")), partitions.get(1).bytes());
+
+        // Rows written behind the manifest's back are found by scanning the partition again
+        Files.writeString(directory.resolve("2024.csv"), "\n2024-07-01|09:00:00|Bonus|The Company|50.00",
+                StandardOpenOption.APPEND);
+        PartitionedLedger.Partition repaired = new ArrayList<>(PartitionedLedger.open(directory).partitions()).get(1);
+        assertEquals(2, repaired.rows());
+        assertEquals(5_100, repaired.depositCents());
+        assertEquals(LocalDate.of(2024, 7, 1), repaired.lastDate());
+
+        Ledger all = new Ledger();
+        TransactionManager.loadTransactionsFromFile(directory.toString(), all);
+        assertEquals(6, all.size());
+    }
+
+    @Test
+    void main_rejectsMissingValueAndUnknownOption() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        Files.writeString(file, ROWS);
+        Path directory = tempDir.resolve("partitions");
+
+        PartitionedLedger.main(new String[]{"--file", file.toString(), "--to", directory.toString(), "--by"});
+        PartitionedLedger.main(new String[]{"--file", file.toString(), "--to", directory.toString(), "--bye", "year"});
+        PartitionedLedger.main(new String[]{"--file", file.toString(), "--to", directory.toString(), "--by", "week"});
+        assertFalse(Files.exists(directory));
+
+        PartitionedLedger.main(new String[]{"--file", file.toString(), "--to", directory.toString(), "--by", "year"});
+        assertTrue(Files.isDirectory(directory));
+    }
+}
@@ -0,0 +1,106 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void plan_matchesBruteForce() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        new LedgerGenerator(11, LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 31), 80).generate(file, 20_000);
+        Ledger ledger = new Ledger();
+        LedgerFileLoader.load(file, ledger);
+
+        RowQuery[] queries = {
+                RowQuery.ALL,
+                RowQuery.ALL.ofType(true),
+                RowQuery.ALL.between(LocalDate.of(2022, 6, 1), LocalDate.of(2022, 6, 30)),
+                RowQuery.ALL.fromVendor("MARKET"),
+                RowQuery.ALL.between(LocalDate.of(2023, 2, 1), null).describedBy("fuel").fromVendor("gas")
+                        .amountBetween(-5000, -1000)
+        };
+        for (RowQuery query : queries) {
+            assertEquals(bruteForce(ledger, query), rows(QueryPlanner.plan(ledger, query).cursor()), query.toString());
+        }
+    }
+
+    @Test
+    void parallelScan_keepsNewestFirstOrder() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        new LedgerGenerator(5, LocalDate.of(2021, 1, 1), LocalDate.of(2023, 12, 31), 50).generate(file, 30_000);
+        Ledger ledger = new Ledger();
+        LedgerFileLoader.load(file, ledger);
+
+        RowQuery[] queries = {
+                RowQuery.ALL.ofType(false).fromVendor("cafe"),
+                RowQuery.ALL.between(LocalDate.of(2022, 1, 1), null).describedBy("refund")
+        };
+        for (RowQuery query : queries) {
+            QueryPlanner.QueryPlan plan = QueryPlanner.plan(ledger, query);
+            assertEquals(rows(plan.cursor(ScanMode.SEQUENTIAL)), rows(plan.cursor(ScanMode.PARALLEL)), query.toString());
+        }
+
+        int[] positions = ParallelScan.matchingPositions(0, ledger.rowCount(), row -> row, row -> row % 3 == 0, 7);
+        assertEquals(10_000, positions.length);
+        for (int i = 0; i < positions.length; i++) assertEquals(i * 3, positions[i]);
+    }
+
+    @Test
+    void plan_skipsScanWhenTextMatchesNothing() {
+        Ledger ledger = new Ledger();
+        ledger.append(19_000, 0, "Fuel Purchase", "Sheetz", -4295);
+
+        assertEquals("empty", QueryPlanner.plan(ledger, RowQuery.ALL.fromVendor("GetGo")).toString());
+        assertEquals("empty", QueryPlanner.plan(ledger, RowQuery.ALL.amountBetween(10, 5)).toString());
+        assertEquals("scan", QueryPlanner.plan(ledger, RowQuery.ALL.describedBy("fuel")).toString());
+    }
+
+    @Test
+    void plan_ordersSelectiveClausesFirst() {
+        Ledger ledger = new Ledger();
+        for (int i = 0; i < 100; i++) ledger.append(19_000 + i, 0, "Groceries", i == 0 ? "Rare Vendor" : "Common Market", -100);
+        ledger.append(19_100, 0, "Paycheck", "Employer", 150_000);
+
+        assertEquals("scan -> vendor -> amount",
+                QueryPlanner.plan(ledger, RowQuery.ALL.fromVendor("rare").ofType(false)).toString());
+        assertEquals("scan -> amount -> vendor",
+                QueryPlanner.plan(ledger, RowQuery.ALL.fromVendor("market").ofType(true)).toString());
+    }
+
+    private static List<Integer> rows(RowCursor cursor) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = cursor.next(); row >= 0; row = cursor.next()) rows.add(row);
+        return rows;
+    }
+
+    private static List<Integer> bruteForce(Ledger ledger, RowQuery query) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < ledger.rowCount(); row++) {
+            Transaction t = ledger.transaction(row);
+            long cents = ledger.cents(row);
+            if (query.startDate() != null && t.date().isBefore(query.startDate())) continue;
+            if (query.endDate() != null && t.date().isAfter(query.endDate())) continue;
+            if (query.description() != null && !t.description().toLowerCase().contains(query.description().toLowerCase())) continue;
+            if (query.vendor() != null && !t.vendor().toLowerCase().contains(query.vendor().toLowerCase())) continue;
+            if (cents < query.minCents() || cents > query.maxCents()) continue;
+            rows.add(row);
+        }
+        // Newest first, in date order with ties in reverse file order
+        rows.sort((a, b) -> {
+            long keyA = ledger.epochDay(a) * 86_400L + ledger.secondOfDay(a);
+            long keyB = ledger.epochDay(b) * 86_400L + ledger.secondOfDay(b);
+            return keyA != keyB ? Long.compare(keyB, keyA) : Integer.compare(b, a);
+        });
+        return rows;
+    }
+}
@@ -0,0 +1,68 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void range_matchesScanOfRows() throws Exception {
+        Path file = tempDir.resolve("ledger.csv");
+        new LedgerGenerator(3, LocalDate.of(2021, 6, 10), LocalDate.of(2024, 3, 20), 50).generate(file, 30_000);
+        Ledger ledger = new Ledger();
+        LedgerFileLoader.load(file, ledger);
+
+        LocalDate[][] ranges = {
+                {null, null},
+                {LocalDate.of(2021, 12, 30), LocalDate.of(2023, 2, 3)},
+                {LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31)},
+                {LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31)},
+                {LocalDate.of(2024, 3, 20), null}
+        };
+        for (LocalDate[] range : ranges) {
+            assertEquals(scan(ledger, range[0], range[1]), ledger.rollups().range(range[0], range[1]));
+        }
+    }
+
+    @Test
+    void add_updatesPeriodsAndVendors() {
+        Ledger ledger = new Ledger();
+        ledger.add(0, new Transaction(LocalDate.of(2024, 1, 31), LocalTime.NOON, "Fuel Purchase", "Sheetz", -4295));
+        ledger.add(0, new Transaction(LocalDate.of(2024, 2, 1), LocalTime.NOON, "Fuel Purchase", "Sheetz", -3824));
+        ledger.add(0, new Transaction(LocalDate.of(2024, 2, 1), LocalTime.NOON, "Paycheck", "Employer", 150000));
+
+        Rollups rollups = ledger.rollups();
+        assertEquals(new Rollups.Aggregate(2, -8119, -4295, -3824), rollups.year(2024).payments());
+        assertEquals(new Rollups.Aggregate(1, 150000, 150000, 150000), rollups.month(YearMonth.of(2024, 2)).deposits());
+        assertEquals(1, rollups.vendorMonth(0, YearMonth.of(2024, 2)).payments().count());
+        assertEquals(-8119, rollups.vendor(0).netCents());
+
+        BitSet all = new BitSet();
+        all.set(0, ledger.vendors().size());
+        assertEquals(150000 - 8119, rollups.vendors(all).netCents());
+    }
+
+    private static Rollups.Summary scan(Ledger ledger, LocalDate startDate, LocalDate endDate) {
+        Rollups.Summary summary = Rollups.Summary.EMPTY;
+        for (int row = 0; row < ledger.rowCount(); row++) {
+            LocalDate date = LocalDate.ofEpochDay(ledger.epochDay(row));
+            if ((startDate != null && date.isBefore(startDate)) || (endDate != null && date.isAfter(endDate))) continue;
+
+            long cents = ledger.cents(row);
+            Rollups.Aggregate single = new Rollups.Aggregate(1, cents, cents, cents);
+            if (cents > 0) summary = summary.plus(new Rollups.Summary(single, Rollups.Aggregate.EMPTY));
+            if (cents < 0) summary = summary.plus(new Rollups.Summary(Rollups.Aggregate.EMPTY, single));
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,60 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+
+import static com.pluralsight.InputValidator.DATE_FORMATTER;
+import static com.pluralsight.InputValidator.TIME_FORMATTER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowFormatterTest {
+    private static final String[] COLORS = {"<even>", "<odd>"};
+    private static final RowFormatter FORMATTER =
+            new RowFormatter(10, 9, 40, 40, 12, "|", "!", COLORS, "<pos>", "<neg>");
+
+    @Test
+    void format_matchesStringFormat() {
+        Random random = new Random(42);
+        Ledger ledger = new Ledger();
+        for (int i = 0; i < 10_000; i++) {
+            String description = "Description ".repeat(random.nextInt(5)) + i;
+            long cents = random.nextInt(5) == 0 ? random.nextLong() / 100_000 : random.nextInt(2_000_000) - 1_000_000;
+            ledger.append(random.nextInt(60_000) - 10_000, random.nextInt(86_400), description, "Vendor " + i % 37, cents);
+        }
+
+        for (int row = 0; row < ledger.rowCount(); row++) {
+            assertEquals(legacyFormat(ledger.transaction(row), row % 2 == 0), FORMATTER.format(ledger, row, row).toString());
+        }
+    }
+
+    @Test
+    void format_truncatesLongCells() {
+        Ledger ledger = new Ledger();
+        ledger.append((int) LocalDate.of(2024, 2, 29).toEpochDay(), 0, "x".repeat(60), "Vendor", -123_456_789_012L);
+
+        String formatted = FORMATTER.format(ledger, 0, 0).toString();
+        assertTrue(formatted.contains("2024-02-29 !<even> 00:00:00 !<even> " + "x".repeat(37) + "... "));
+        assertTrue(formatted.contains("<neg>-12345678..."));
+    }
+
+    /**
+     * The row format used before the formatter was introduced.
+     */
+    private static String legacyFormat(Transaction t, boolean isEvenRow) {
+        String color = isEvenRow ? COLORS[0] : COLORS[1];
+        return "|" + String.format("%s %-10s %s%s %-9s%s%s %-40s %s%s %-40s %s%s %s%12s |%n",
+                color, t.date().format(DATE_FORMATTER), "!",
+                color, t.time().format(TIME_FORMATTER), "!",
+                color, truncate(t.description(), 40), "!",
+                color, truncate(t.vendor(), 40), "!",
+                color, t.cents() < 0 ? "<neg>" : "<pos>", truncate(String.format("%.2f", BigDecimal.valueOf(t.cents(), 2)), 12));
+    }
+
+    private static String truncate(String input, int width) {
+        return input.length() > width ? input.substring(0, width - 3) + "..." : input;
+    }
+}
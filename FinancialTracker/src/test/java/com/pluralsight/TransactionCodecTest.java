@@ -0,0 +1,103 @@
+package com.pluralsight;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCodecTest {
+
+    private static Transaction decode(String row) {
+        ByteBuffer buffer = ByteBuffer.wrap(row.getBytes(StandardCharsets.UTF_8));
+        return new TransactionCodec.Decoder().decode(buffer, 0, buffer.limit());
+    }
+
+    @Test
+    void decode_canonicalRow() {
+        Transaction t = decode("2024-10-13|08:10:21|Potatoes|The Company Store|-10.00");
+
+        assertEquals(new Transaction(LocalDate.of(2024, 10, 13), LocalTime.of(8, 10, 21),
+                "Potatoes", "The Company Store", -1000), t);
+    }
+
+    @Test
+    void decode_nonCanonicalRowFallsBack() {
+        Transaction t = decode(" 2024-10-13 | 08:10 |  Potatoes | Walmart | 1.5e2 ");
+
+        assertEquals(new Transaction(LocalDate.of(2024, 10, 13), LocalTime.of(8, 10),
+                "Potatoes", "Walmart", 15000), t);
+    }
+
+    @Test
+    void decode_repeatedTextReusesOneInstance() {
+        ByteBuffer buffer = ByteBuffer.wrap(("2024-10-13|08:10:21|Potatoes|The Company Store|-10.00\n"
+                + "2024-10-14|09:00:00| Potatoes |The Company Store|-2.00").getBytes(StandardCharsets.UTF_8));
+        TransactionCodec.Decoder decoder = new TransactionCodec.Decoder();
+
+        Transaction first = decoder.decode(buffer, 0, 53);
+        Transaction second = decoder.decode(buffer, 54, buffer.limit());
+
+        assertEquals("Potatoes", second.description());
+        assertSame(first.description(), second.description());
+        assertSame(first.vendor(), second.vendor());
+    }
+
+    @Test
+    void byteStringCache_stopsGrowingAtLimit() {
+        ByteBuffer buffer = ByteBuffer.wrap("abcé".getBytes(StandardCharsets.UTF_8));
+        ByteStringCache cache = new ByteStringCache(2);
+
+        assertEquals("abcé", cache.get(buffer, 0, buffer.limit()));
+        assertSame(cache.get(buffer, 0, 1), cache.get(buffer, 0, 1));
+        assertEquals("ab", cache.get(buffer, 0, 2));
+        assertNotSame(cache.get(buffer, 0, 2), cache.get(buffer, 0, 2));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void decode_wrongFieldCount() {
+        assertNull(decode("2024-10-13|08:10:21|Potatoes|-10.00"));
+        assertNull(decode("2024-10-13|08:10:21|Potatoes|Walmart|-10.00|extra"));
+    }
+
+    @Test
+    void encode_matchesLegacyFormat() {
+        long[] amounts = {0, -300, 1749, 101, -5999, 150000, 12345679, -5, Long.MAX_VALUE, Long.MIN_VALUE};
+        TransactionCodec.Encoder encoder = new TransactionCodec.Encoder();
+
+        for (long cents : amounts) {
+            Transaction t = new Transaction(LocalDate.of(2020, 2, 29), LocalTime.of(19, 26, 14), "Desc", "Vendor", cents);
+            String expected = String.format("%n%s|%s|%s|%s|%.2f", "2020-02-29", "19:26:14", "Desc", "Vendor",
+                    BigDecimal.valueOf(cents, 2));
+
+            assertEquals(expected, encoder.encode(t).toString());
+        }
+    }
+
+    @Test
+    void parseCents_roundsHalfUpLikeTheLegacyFormat() {
+        String[] amounts = {"0", "-3", "17.485", "1.005", " -59.99 ", "+1500", "123456.785", ".5", "7.", "0.004", "1.5e2"};
+        long[] expected = {0, -300, 1749, 101, -5999, 150000, 12345679, 50, 700, 0, 15000};
+
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(expected[i], TransactionCodec.parseCents(amounts[i]), amounts[i]);
+        }
+        assertEquals(Long.MAX_VALUE / 100 * 100, TransactionCodec.parseCents(Long.toString(Long.MAX_VALUE / 100)));
+        for (String invalid : new String[]{"", "-", ".", "12a", "1.2.3", "--5", "NaN", "1e30"}) {
+            assertThrows(NumberFormatException.class, () -> TransactionCodec.parseCents(invalid), invalid);
+        }
+    }
+
+    @Test
+    void encode_decode_roundTrip() {
+        Transaction t = new Transaction(LocalDate.of(2019, 12, 31), LocalTime.of(12, 34, 56), "Café", "Walmart", -350);
+        String encoded = new TransactionCodec.Encoder().encode(t).toString();
+
+        assertEquals(t, decode(encoded.strip()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.pluralsight.benchmarks;
+
+import com.pluralsight.Ledger;
+import com.pluralsight.Transaction;
+import com.pluralsight.TransactionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding a transaction to a loaded ledger, including the write to its data file.
+ * <p>
+ * Each trial appends to a private copy of the generated data file, with the durability mode
+ * taken from the {@code tracker.durability} property of the forked JVM.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class AppendBenchmark {
+    private static final Transaction TRANSACTION = new Transaction(BenchmarkData.LAST_DATE.plusDays(1),
+            LocalTime.NOON, "Fuel Purchase", "Vendor 7", -3824);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int rows;
+
+    private Path file;
+    private Ledger ledger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceOutput();
+        file = Files.createTempFile("append-benchmark-", ".csv");
+        Files.copy(BenchmarkData.ledgerFile(rows), file, StandardCopyOption.REPLACE_EXISTING);
+        ledger = new Ledger();
+        TransactionManager.loadTransactionsFromFile(file.toString(), ledger);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TransactionManager.closeWriters();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void addNewTransaction() {
+        TransactionManager.addNewTransaction(TRANSACTION, ledger, file.toString());
+    }
+}
@@ -0,0 +1,86 @@
+package com.pluralsight.benchmarks;
+
+import com.pluralsight.Ledger;
+import com.pluralsight.LedgerGenerator;
+import com.pluralsight.TransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Scanner;
+
+/**
+ * Shared fixtures for the benchmarks: generated ledger files, a silenced console and scripted input.
+ * <p>
+ * Ledger files are generated once per size by a {@link LedgerGenerator} with a fixed seed and cached
+ * in the temporary directory, so every fork and every suite measures exactly the same data.
+ * </p>
+ */
+public class BenchmarkData {
+    static final long SEED = 20241013L;
+    static final LocalDate FIRST_DATE = LocalDate.of(2015, 1, 1);
+    static final LocalDate LAST_DATE = LocalDate.of(2024, 12, 31);
+    private static final Path CACHE_DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "financial-tracker-bench");
+    private static final int VENDOR_COUNT = 1000;
+
+    /**
+     * Returns the data file holding the given number of generated rows, generating it on first use.
+     *
+     * @param rows the number of rows in the file
+     * @return the path of the cached data file
+     * @throws IOException if the file cannot be generated
+     */
+    public static Path ledgerFile(int rows) throws IOException {
+        Path file = CACHE_DIRECTORY.resolve("ledger-" + SEED + "-" + rows + ".csv");
+        if (Files.exists(file)) return file;
+
+        Files.createDirectories(CACHE_DIRECTORY);
+        Path temporary = Files.createTempFile(CACHE_DIRECTORY, "ledger-", ".tmp");
+        new LedgerGenerator(SEED, FIRST_DATE, LAST_DATE, VENDOR_COUNT).generate(temporary, rows);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * Loads the generated ledger of the given size.
+     */
+    public static Ledger loadLedger(int rows) throws IOException {
+        Ledger ledger = new Ledger();
+        TransactionManager.loadTransactionsFromFile(ledgerFile(rows).toString(), ledger);
+        return ledger;
+    }
+
+    /**
+     * Replaces the console with a sink that discards everything, so benchmarks measure rendering
+     * rather than the terminal.
+     */
+    public static void silenceOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Returns input that leaves a table after its first page.
+     */
+    public static Scanner firstPageInput() {
+        return new Scanner("\n");
+    }
+
+    /**
+     * Returns input that keeps moving to the next page until the last page has been shown.
+     */
+    public static Scanner allPagesInput() {
+        return new Scanner(new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return (position++ & 1) == 0 ? 'N' : '\n';
+            }
+        });
+    }
+}
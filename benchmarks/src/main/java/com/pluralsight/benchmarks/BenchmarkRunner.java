@@ -0,0 +1,25 @@
+package com.pluralsight.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar, running JMH with allocation profiling always enabled.
+ * <p>
+ * Every JMH command line option is accepted, so suites, sizes and iterations can be selected as
+ * usual, for example {@code java -jar benchmarks.jar FilterBenchmark -p rows=1000000}. The GC profiler
+ * is added to every run, so the results report bytes allocated per operation next to the throughput.
+ * </p>
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
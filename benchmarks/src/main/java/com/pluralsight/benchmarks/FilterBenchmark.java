@@ -0,0 +1,55 @@
+package com.pluralsight.benchmarks;
+
+import com.pluralsight.LedgerStore;
+import com.pluralsight.TableManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every {@link TableManager} filter over the whole result, paging through every page of the table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+    private static final LocalDate RANGE_START = LocalDate.of(2020, 3, 1);
+    private static final LocalDate RANGE_END = LocalDate.of(2020, 3, 31);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int rows;
+
+    private LedgerStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceOutput();
+        store = new LedgerStore(BenchmarkData.loadLedger(rows));
+    }
+
+    @Benchmark
+    public void filterByType() {
+        TableManager.filterTransactionsByType(BenchmarkData.allPagesInput(), true, store);
+    }
+
+    @Benchmark
+    public void filterByDate() {
+        TableManager.filterTransactionsByDate(BenchmarkData.allPagesInput(), RANGE_START, RANGE_END, store);
+    }
+
+    @Benchmark
+    public void filterByVendor() {
+        TableManager.filterTransactionsByVendor(BenchmarkData.allPagesInput(), "gas", store);
+    }
+
+    @Benchmark
+    public void filterByCustom() {
+        TableManager.filterTransactionsByCustom(BenchmarkData.allPagesInput(), RANGE_START, null, "Fuel", "gas",
+                -10_000, -500, store);
+    }
+}
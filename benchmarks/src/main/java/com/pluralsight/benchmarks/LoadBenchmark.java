@@ -0,0 +1,44 @@
+package com.pluralsight.benchmarks;
+
+import com.pluralsight.Ledger;
+import com.pluralsight.LineIndex;
+import com.pluralsight.TransactionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a whole data file into a {@link Ledger}, and indexing it for a lazy load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int rows;
+
+    private String fileName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceOutput();
+        fileName = BenchmarkData.ledgerFile(rows).toString();
+    }
+
+    @Benchmark
+    public Ledger loadTransactionsFromFile() {
+        Ledger ledger = new Ledger();
+        TransactionManager.loadTransactionsFromFile(fileName, ledger);
+        return ledger;
+    }
+
+    @Benchmark
+    public LineIndex buildLineIndex() throws IOException {
+        return LineIndex.build(Path.of(fileName), 0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pluralsight.benchmarks;
+
+import com.pluralsight.LedgerStore;
+import com.pluralsight.TableManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering the full ledger table, both the first page alone and every page in turn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int rows;
+
+    private LedgerStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.silenceOutput();
+        store = new LedgerStore(BenchmarkData.loadLedger(rows));
+    }
+
+    @Benchmark
+    public void displayFirstPage() {
+        TableManager.displayFullLedger(BenchmarkData.firstPageInput(), store);
+    }
+
+    @Benchmark
+    public void displayAllPages() {
+        TableManager.displayFullLedger(BenchmarkData.allPagesInput(), store);
+    }
+}
@@ -0,0 +1,57 @@
+package com.pluralsight.benchmarks;
+
+import com.pluralsight.Ledger;
+import com.pluralsight.QueryPlanner;
+import com.pluralsight.RowCursor;
+import com.pluralsight.RowQuery;
+import com.pluralsight.ScanMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sequential and parallel scans of the same query plans, draining every matching row, to
+ * find the ledger size from which {@link ScanMode#PARALLEL} pays off on the current machine. The
+ * crossover is the value to use for {@code tracker.scan.parallelThreshold}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int rows;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    ScanMode mode;
+
+    private QueryPlanner.QueryPlan vendorPlan;
+    private QueryPlanner.QueryPlan customPlan;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Ledger ledger = BenchmarkData.loadLedger(rows);
+        vendorPlan = QueryPlanner.plan(ledger, RowQuery.ALL.fromVendor("gas"));
+        customPlan = QueryPlanner.plan(ledger, RowQuery.ALL.describedBy("Fuel").fromVendor("gas")
+                .amountBetween(-10_000, -500));
+    }
+
+    @Benchmark
+    public int scanVendor() {
+        return drain(vendorPlan.cursor(mode));
+    }
+
+    @Benchmark
+    public int scanCustom() {
+        return drain(customPlan.cursor(mode));
+    }
+
+    private static int drain(RowCursor cursor) {
+        int sum = 0;
+        for (int row = cursor.next(); row >= 0; row = cursor.next()) sum += row;
+        return sum;
+    }
+}